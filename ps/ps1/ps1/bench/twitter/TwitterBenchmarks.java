@@ -0,0 +1,102 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks for the Extract, Filter and SocialNetwork methods on synthetic
+ * tweets at 10^3 to 10^7 tweets.
+ * <p>
+ * Usage: java -cp ... twitter.TwitterBenchmarks [maxExponent [seconds]]
+ * <p>
+ * Run without -ea: the rep invariant checks would otherwise be timed too.
+ * <p>
+ * maxExponent (default 6) is the largest size, 10^maxExponent tweets; 10^7
+ * needs about 4GB of heap. seconds (default 1) is the measuring time per
+ * benchmark and size. Each benchmark is warmed up, then timed over repeated
+ * runs, and the median and best times per run are printed as a table, so
+ * regressions show up as numbers. Results are fed to a sink field, so the JIT
+ * can't discard the work.
+ */
+public class TwitterBenchmarks {
+
+    private static final long SEED = 6005;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MAX_RUNS = 1000;
+
+    /* Results are folded in here so the benchmarked calls are never dead code. */
+    static volatile int sink;
+
+    private TwitterBenchmarks() {
+        // main only
+    }
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args optional largest size exponent and seconds per benchmark
+     */
+    public static void main(String[] args) {
+        int maxExponent = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+
+        System.out.printf("%-36s %10s %14s %14s %10s%n", "benchmark", "tweets", "median ns/op", "best ns/op", "ns/tweet");
+        for (int exponent = 3; exponent <= maxExponent; exponent++) {
+            int n = (int) Math.pow(10, exponent);
+            SyntheticTweets generator = SyntheticTweets.typical(SEED, n);
+            List<Tweet> tweets = generator.generate(n);
+            String author = generator.username(0);
+            Instant start = Instant.parse("2016-02-17T06:00:00Z");
+            Timespan timespan = new Timespan(start, start.plus(Duration.ofHours(6)));
+            List<String> words = Arrays.asList("rivest", "talk", "Lol");
+            Map<String, Set<String>> graph = SocialNetwork.guessFollowsGraph(tweets);
+
+            run("Extract.getTimespan", n, seconds, () -> Extract.getTimespan(tweets));
+            run("Extract.getMentionedUsers", n, seconds, () -> Extract.getMentionedUsers(tweets));
+            run("Filter.writtenBy", n, seconds, () -> Filter.writtenBy(tweets, author));
+            run("Filter.inTimespan", n, seconds, () -> Filter.inTimespan(tweets, timespan));
+            run("Filter.containing", n, seconds, () -> Filter.containing(tweets, words));
+            run("SocialNetwork.guessFollowsGraph", n, seconds, () -> SocialNetwork.guessFollowsGraph(tweets));
+            run("SocialNetwork.influencers", n, seconds, () -> SocialNetwork.influencers(graph));
+            run("TweetDeduplicator", n, seconds, () -> tweets.stream().filter(new TweetDeduplicator()).count());
+            run("TrendingHashtags", n, seconds, () -> {
+                TrendingHashtags trending = new TrendingHashtags();
+                trending.addAll(tweets);
+                return trending.top(10);
+            });
+            TweetSearch search = TweetSearch.of(tweets);
+            run("TweetSearch.search", n, seconds, () -> search.search(words, 10));
+        }
+    }
+
+    /* Time one benchmark and print a row of the table. */
+    private static void run(String name, int tweets, double seconds, Supplier<Object> benchmark) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            sink += benchmark.get().hashCode();
+        }
+        long budget = (long) (seconds * 1e9);
+        long[] times = new long[MAX_RUNS];
+        int runs = 0;
+        long elapsed = 0;
+        while (runs < MAX_RUNS && (elapsed < budget || runs < 3)) {
+            long before = System.nanoTime();
+            Object result = benchmark.get();
+            long time = System.nanoTime() - before;
+            sink += System.identityHashCode(result);
+            times[runs++] = time;
+            elapsed += time;
+        }
+        long[] sorted = Arrays.copyOf(times, runs);
+        Arrays.sort(sorted);
+        long median = sorted[runs / 2];
+        System.out.printf("%-36s %10d %14d %14d %10.1f%n", name, tweets, median, sorted[0], (double) median / tweets);
+    }
+}
@@ -0,0 +1,138 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mutable inverted index from authors to the tweets they wrote.
+ * <p>
+ * Authors are case-insensitive (see Tweet.getAuthor()), so they are folded
+ * before indexing. For each author the index keeps a posting list of tweet
+ * ordinals, that is positions in the order tweets were added. Since ordinals
+ * only grow, every posting list is already sorted, and writtenBy() answers in
+ * time proportional to the size of its result.
+ * <p>
+ * Tweets can be appended at any time, one by one or a batch at a time.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class AuthorIndex {
+
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final UsernameSet authors = new UsernameSet();
+    private final List<IntList> postings = new ArrayList<>();
+
+    // Abstraction function:
+    //   AF(tweets, authors, postings) = the list of tweets in `tweets`, indexed
+    //     so that the tweets by author authors.get(a) are at the ordinals
+    //     postings.get(a), in increasing order
+    // Rep invariant:
+    //   postings.size() = authors.size()
+    //   each ordinal 0 <= i < tweets.size() appears in exactly one posting list,
+    //   the one for tweets.get(i)'s folded author
+    //   every posting list is strictly increasing
+    // Safety from rep exposure:
+    //   all fields are private; writtenBy() returns a fresh list, and the
+    //   tweets themselves are immutable.
+
+    private void checkRep() {
+        assert postings.size() == authors.size();
+    }
+
+    /**
+     * Make an empty index.
+     */
+    public AuthorIndex() {
+        checkRep();
+    }
+
+    /**
+     * Make an index over a list of tweets.
+     *
+     * @param tweets tweets to index, not modified by this method
+     * @return an index whose ordinal i is tweets.get(i)
+     */
+    public static AuthorIndex of(List<Tweet> tweets) {
+        AuthorIndex index = new AuthorIndex();
+        index.addAll(tweets);
+        return index;
+    }
+
+    /**
+     * Append a tweet to the index.
+     *
+     * @param tweet tweet to append
+     * @return the ordinal of the appended tweet
+     */
+    public int add(Tweet tweet) {
+        int ordinal = tweets.size();
+        int author = authors.add(tweet.getAuthor());
+        if (author == postings.size()) {
+            postings.add(new IntList(4));
+        }
+        postings.get(author).add(ordinal);
+        tweets.add(tweet);
+        checkRep();
+        return ordinal;
+    }
+
+    /**
+     * Append a batch of tweets to the index, in order.
+     *
+     * @param batch tweets to append, not modified by this method
+     */
+    public void addAll(List<Tweet> batch) {
+        for (Tweet tweet : batch) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return number of distinct (case-insensitive) authors in the index
+     */
+    public int authorCount() {
+        return authors.size();
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     *
+     * @param username Twitter username, compared case-insensitively
+     * @return all and only the indexed tweets whose author is username, in the
+     * order they were added
+     */
+    public List<Tweet> writtenBy(String username) {
+        int author = authors.indexOf(username);
+        if (author < 0) {
+            return new ArrayList<>();
+        }
+        IntList ordinals = postings.get(author);
+        List<Tweet> result = new ArrayList<>(ordinals.size());
+        for (int i = 0; i < ordinals.size(); i++) {
+            result.add(tweets.get(ordinals.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Find the ordinals of tweets written by a particular user.
+     *
+     * @param username Twitter username, compared case-insensitively
+     * @return the ordinals of all and only the indexed tweets whose author is
+     * username, in increasing order
+     */
+    public int[] ordinalsWrittenBy(String username) {
+        int author = authors.indexOf(username);
+        return author < 0 ? new int[0] : postings.get(author).toArray();
+    }
+}
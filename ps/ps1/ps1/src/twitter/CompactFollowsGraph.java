@@ -0,0 +1,264 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable social network (as defined by SocialNetwork) in compact form.
+ * <p>
+ * Usernames are interned to dense int ids through a case-insensitive
+ * dictionary, and edges are stored in compressed sparse row (CSR) arrays in
+ * both directions: the users that user i follows are
+ * followsTargets[followsOffsets[i] .. followsOffsets[i+1]), and the users who
+ * follow i are laid out the same way in the followers arrays. Each edge costs
+ * two ints, one per direction, instead of a HashSet entry and a String.
+ * <p>
+ * A graph can be built from the map form or straight from tweets, and
+ * converted back to the map form with toMap().
+ */
+public class CompactFollowsGraph {
+
+    private final UsernameSet users;
+    private final BitSet authors;
+    private final int[] followsOffsets;
+    private final int[] followsTargets;
+    private final int[] followersOffsets;
+    private final int[] followersTargets;
+
+    // Abstraction function:
+    //   AF(users, authors, follows*, followers*) = the social network in which
+    //     users.get(a) follows users.get(b) iff b is in
+    //     followsTargets[followsOffsets[a] .. followsOffsets[a+1]); the keys of
+    //     its map form are the users in `authors` plus every user who follows someone
+    // Rep invariant:
+    //   followsOffsets.length = followersOffsets.length = users.size() + 1
+    //   both offset arrays start at 0, are nondecreasing, and end at the edge count
+    //   followsTargets.length = followersTargets.length = edge count
+    //   every row is strictly increasing and contains no self-edge
+    //   b is in follows row a iff a is in followers row b
+    // Safety from rep exposure:
+    //   all fields are private and final. The CSR arrays are shared only with
+    //   code in this package, which never modifies them; public methods return
+    //   copies.
+
+    private void checkRep() {
+        final int n = users.size();
+        assert followsOffsets.length == n + 1 && followersOffsets.length == n + 1;
+        assert followsOffsets[0] == 0 && followersOffsets[0] == 0;
+        assert followsOffsets[n] == followsTargets.length;
+        assert followersOffsets[n] == followersTargets.length;
+        assert followsTargets.length == followersTargets.length;
+    }
+
+    private CompactFollowsGraph(UsernameSet users, BitSet authors, IntList sources, IntList targets) {
+        this.users = users;
+        this.authors = authors;
+        final int n = users.size();
+
+        // bucket edges by source, then sort and de-duplicate each row in place
+        int[] offsets = countOffsets(sources, n);
+        int[] rows = new int[sources.size()];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < sources.size(); e++) {
+            rows[next[sources.get(e)]++] = targets.get(e);
+        }
+        int edges = 0;
+        for (int a = 0; a < n; a++) {
+            int from = offsets[a];
+            int to = offsets[a + 1];
+            Arrays.sort(rows, from, to);
+            offsets[a] = edges;
+            for (int k = from; k < to; k++) {
+                int b = rows[k];
+                if (b != a && (k == from || b != rows[k - 1])) {
+                    rows[edges++] = b;
+                }
+            }
+        }
+        offsets[n] = edges;
+        this.followsOffsets = offsets;
+        this.followsTargets = Arrays.copyOf(rows, edges);
+
+        // transpose; visiting sources in increasing order keeps every followers row sorted
+        int[] reverseOffsets = new int[n + 1];
+        for (int b : followsTargets) {
+            reverseOffsets[b + 1]++;
+        }
+        for (int b = 0; b < n; b++) {
+            reverseOffsets[b + 1] += reverseOffsets[b];
+        }
+        int[] reverse = new int[edges];
+        int[] reverseNext = Arrays.copyOf(reverseOffsets, n);
+        for (int a = 0; a < n; a++) {
+            for (int k = followsOffsets[a]; k < followsOffsets[a + 1]; k++) {
+                reverse[reverseNext[followsTargets[k]]++] = a;
+            }
+        }
+        this.followersOffsets = reverseOffsets;
+        this.followersTargets = reverse;
+        checkRep();
+    }
+
+    /**
+     * Convert a social network from map form.
+     *
+     * @param followsGraph a social network (as defined by SocialNetwork), not
+     *                     modified by this method
+     * @return the same network in compact form; usernames are folded to lower
+     * case, and self-follows are dropped
+     */
+    public static CompactFollowsGraph fromMap(Map<String, Set<String>> followsGraph) {
+        UsernameSet users = new UsernameSet();
+        BitSet authors = new BitSet();
+        IntList sources = new IntList();
+        IntList targets = new IntList();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int a = users.add(entry.getKey());
+            authors.set(a);
+            for (String followed : entry.getValue()) {
+                sources.add(a);
+                targets.add(users.add(followed));
+            }
+        }
+        return new CompactFollowsGraph(users, authors, sources, targets);
+    }
+
+    /**
+     * Infer a social network from tweets, as SocialNetwork.guessFollowsGraph()
+     * does, without building the map form first.
+     *
+     * @param tweets tweets providing the evidence, not modified by this method
+     * @return a network in which A follows B iff A @-mentions B in some tweet
+     * and A is not B; every author is a key of its map form
+     */
+    public static CompactFollowsGraph fromTweets(Iterable<Tweet> tweets) {
+        UsernameSet users = new UsernameSet();
+        BitSet authors = new BitSet();
+        IntList sources = new IntList();
+        IntList targets = new IntList();
+        for (Tweet tweet : tweets) {
+            int a = users.add(tweet.getAuthor());
+            authors.set(a);
+            MentionScanner.scan(tweet.getText(), (text, start, end) -> {
+                sources.add(a);
+                targets.add(users.add(text, start, end));
+            });
+        }
+        return new CompactFollowsGraph(users, authors, sources, targets);
+    }
+
+    /**
+     * @return the network in map form, as defined by SocialNetwork: every author
+     * and every user who follows someone is a key; usernames are in lower case
+     */
+    public Map<String, Set<String>> toMap() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int a = 0; a < userCount(); a++) {
+            int from = followsOffsets[a];
+            int to = followsOffsets[a + 1];
+            if (from == to && !authors.get(a)) {
+                continue;
+            }
+            Set<String> followed = new HashSet<>(Math.max(16, (to - from) * 4 / 3 + 1));
+            for (int k = from; k < to; k++) {
+                followed.add(users.get(followsTargets[k]));
+            }
+            graph.put(users.get(a), followed);
+        }
+        return graph;
+    }
+
+    /**
+     * @return number of distinct users in the network
+     */
+    public int userCount() {
+        return users.size();
+    }
+
+    /**
+     * @return number of follows edges in the network
+     */
+    public int edgeCount() {
+        return followsTargets.length;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return the id of username, ignoring case, or -1 if not in the network
+     */
+    public int id(String username) {
+        return users.indexOf(username);
+    }
+
+    /**
+     * @param id a user id, 0 <= id < userCount()
+     * @return that user's username, in lower case
+     */
+    public String username(int id) {
+        return users.get(id);
+    }
+
+    /**
+     * @param id a user id, 0 <= id < userCount()
+     * @return the ids of the users that user follows, in increasing order
+     */
+    public int[] follows(int id) {
+        return Arrays.copyOfRange(followsTargets, followsOffsets[id], followsOffsets[id + 1]);
+    }
+
+    /**
+     * @param id a user id, 0 <= id < userCount()
+     * @return the ids of the users who follow that user, in increasing order
+     */
+    public int[] followers(int id) {
+        return Arrays.copyOfRange(followersTargets, followersOffsets[id], followersOffsets[id + 1]);
+    }
+
+    /**
+     * @param id a user id, 0 <= id < userCount()
+     * @return number of users that user follows
+     */
+    public int followsCount(int id) {
+        return followsOffsets[id + 1] - followsOffsets[id];
+    }
+
+    /**
+     * @param id a user id, 0 <= id < userCount()
+     * @return number of users who follow that user
+     */
+    public int followerCount(int id) {
+        return followersOffsets[id + 1] - followersOffsets[id];
+    }
+
+    /* Shared, not copied: callers in this package must not modify these arrays. */
+    int[] followsOffsets() {
+        return followsOffsets;
+    }
+
+    int[] followersOffsets() {
+        return followersOffsets;
+    }
+
+    int[] followersTargets() {
+        return followersTargets;
+    }
+
+    /* @return CSR offsets for edges bucketed by the given endpoint ids */
+    private static int[] countOffsets(IntList endpoints, int n) {
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < endpoints.size(); e++) {
+            offsets[endpoints.get(e) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return offsets;
+    }
+}
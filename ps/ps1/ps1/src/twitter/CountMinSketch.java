@@ -0,0 +1,216 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A mutable Count-Min sketch that estimates how many times each username was
+ * added to it, ignoring case, in fixed memory.
+ * <p>
+ * The sketch is `depth` rows of `width` counters. Each name increments one
+ * counter per row, chosen by a hash, and its estimate is the smallest of its
+ * counters. Estimates never undercount, and with probability at least
+ * 1 - 2^-depth they overcount by at most e/width times the total count added.
+ * Sketches of equal dimensions can be merged by adding their counters, and a
+ * sketch can be saved with toBytes().
+ * <p>
+ * Not thread-safe.
+ */
+public class CountMinSketch {
+
+    /** Default width: estimates overcount by at most 0.04% of the total count, in 64KB per row. */
+    public static final int DEFAULT_WIDTH = 1 << 13;
+
+    /** Default depth: the error bound holds with probability over 99.9%. */
+    public static final int DEFAULT_DEPTH = 10;
+
+    private static final int MAGIC = 0x434d534b; // "CMSK"
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long total = 0;
+
+    // Abstraction function:
+    //   AF(width, depth, counters, total) = a multiset of `total` folded names
+    //     in which the multiplicity of a name with hash h is estimated by the
+    //     minimum over rows r of counters[r * width + column(h, r)]
+    // Rep invariant:
+    //   width is a power of two, depth >= 1
+    //   counters.length = width * depth
+    //   every counter is between 0 and total; each row sums to total
+    // Safety from rep exposure:
+    //   all fields are private; toBytes() returns a fresh array.
+
+    private void checkRep() {
+        assert width > 0 && Integer.bitCount(width) == 1 && depth >= 1;
+        assert counters.length == width * depth;
+        assert total >= 0;
+    }
+
+    /**
+     * Make an empty sketch with the default dimensions.
+     */
+    public CountMinSketch() {
+        this(DEFAULT_WIDTH, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param width counters per row, a power of two
+     * @param depth number of rows, depth >= 1
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || Integer.bitCount(width) != 1 || depth < 1 || (long) width * depth > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid Count-Min dimensions " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+        checkRep();
+    }
+
+    /**
+     * Add one occurrence of a username.
+     *
+     * @param username a Twitter username
+     */
+    public void add(CharSequence username) {
+        addHash(UsernameSet.hash64(username, 0, username.length()), 1);
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return estimated number of occurrences of username added, ignoring
+     * case; never less than the true number
+     */
+    public long estimate(CharSequence username) {
+        return estimateHash(UsernameSet.hash64(username, 0, username.length()));
+    }
+
+    /**
+     * @return number of counters per row
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return total number of occurrences added
+     */
+    public long total() {
+        return total;
+    }
+
+    /*
+     * Add count occurrences of an item by its 64-bit hash.
+     *
+     * @return the item's new estimate
+     */
+    long addHash(long hash, long count) {
+        total += count;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + column(hash, row);
+            counters[index] += count;
+            estimate = Math.min(estimate, counters[index]);
+        }
+        return estimate;
+    }
+
+    /* @return the estimated count of an item by its 64-bit hash */
+    long estimateHash(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /* Column of an item in a row, by double hashing with the two halves of its hash. */
+    private int column(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (h1 + row * h2) & (width - 1);
+    }
+
+    /**
+     * Add every occurrence in another sketch to this one.
+     *
+     * @param other a sketch with the same dimensions; not modified
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("cannot merge a " + other.width + "x" + other.depth
+                + " sketch into a " + width + "x" + depth + " sketch");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * @return this sketch serialized as bytes, readable by fromBytes()
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+        write(buffer);
+        return buffer.array();
+    }
+
+    /* Write this sketch at the buffer's position, in the format of toBytes(). */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(width).putInt(depth).putLong(total);
+        buffer.asLongBuffer().put(counters);
+        buffer.position(buffer.position() + counters.length * Long.BYTES);
+    }
+
+    /* @return number of bytes that write() produces */
+    int serializedSize() {
+        return 3 * Integer.BYTES + Long.BYTES + counters.length * Long.BYTES;
+    }
+
+    /**
+     * @param bytes a sketch serialized by toBytes(); not modified
+     * @return a copy of that sketch
+     * @throws IllegalArgumentException if bytes is not a serialized sketch
+     */
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /* Read a sketch serialized by toBytes() from the buffer's position. */
+    static CountMinSketch read(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("not a serialized Count-Min sketch");
+            }
+            int width = buffer.getInt();
+            int depth = buffer.getInt();
+            // check the counters are all there before allocating them
+            if (width <= 0 || depth < 1 || (long) width * depth * Long.BYTES + Long.BYTES > buffer.remaining()) {
+                throw new IllegalArgumentException("not a serialized Count-Min sketch: " + width + "x" + depth
+                    + " counters in " + buffer.remaining() + " bytes");
+            }
+            CountMinSketch sketch = new CountMinSketch(width, depth);
+            sketch.total = buffer.getLong();
+            buffer.asLongBuffer().get(sketch.counters);
+            buffer.position(buffer.position() + sketch.counters.length * Long.BYTES);
+            return sketch;
+        } catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("truncated Count-Min sketch", bue);
+        }
+    }
+}
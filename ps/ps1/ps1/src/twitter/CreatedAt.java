@@ -0,0 +1,123 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Parses timestamps in Twitter's created_at layout, "EEE MMM dd HH:mm:ss Z yyyy",
+ * such as "Wed Feb 17 10:00:00 +0000 2016".
+ * <p>
+ * Every timestamp in a feed has the same fixed 30-character layout, so the
+ * fields are read straight from their positions and converted to epoch
+ * seconds with integer arithmetic, without the general-purpose parsing and
+ * field resolution of DateTimeFormatter. Anything that doesn't fit the layout
+ * exactly, or has an out-of-range field, goes through FORMAT instead, so the
+ * results and errors are the same as ZonedDateTime.parse(text, FORMAT).
+ */
+final class CreatedAt {
+
+    /** Twitter's created_at layout; DateTimeFormatter is immutable, so one is shared. */
+    static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+
+    private static final int LENGTH = 30;
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final String DAYS = "MonTueWedThuFriSatSun";
+
+    private CreatedAt() {
+        // static methods only
+    }
+
+    /**
+     * @param text a timestamp in created_at layout
+     * @return the instant it denotes
+     * @throws java.time.format.DateTimeParseException if text is not a valid
+     *                                                 timestamp in that layout
+     */
+    static Instant parse(String text) {
+        long epochSecond = parseFixed(text);
+        if (epochSecond != Long.MIN_VALUE) {
+            return Instant.ofEpochSecond(epochSecond);
+        }
+        return ZonedDateTime.parse(text, FORMAT).toInstant();
+    }
+
+    /* @return the epoch second of text, or Long.MIN_VALUE if it doesn't fit the fixed layout */
+    private static long parseFixed(String text) {
+        if (text.length() != LENGTH
+            || text.charAt(3) != ' ' || text.charAt(7) != ' ' || text.charAt(10) != ' '
+            || text.charAt(13) != ':' || text.charAt(16) != ':' || text.charAt(19) != ' '
+            || text.charAt(25) != ' ') {
+            return Long.MIN_VALUE;
+        }
+        int dayOfWeek = indexOf(DAYS, text, 0);
+        int month = indexOf(MONTHS, text, 4) + 1;
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        int offsetHours = digits(text, 21, 2);
+        int offsetMinutes = digits(text, 23, 2);
+        int year = digits(text, 26, 4);
+        char sign = text.charAt(20);
+        if (dayOfWeek < 0 || month < 1 || (sign != '+' && sign != '-')
+            || (day | hour | minute | second | offsetHours | offsetMinutes | year) < 0
+            || year < 1 || day < 1 || day > lengthOfMonth(year, month)
+            || hour > 23 || minute > 59 || second > 59 || offsetMinutes > 59
+            || offsetHours * 60 + offsetMinutes > 18 * 60) {
+            return Long.MIN_VALUE;
+        }
+        long epochDay = epochDay(year, month, day);
+        if (Math.floorMod(epochDay + 3, 7) != dayOfWeek) {
+            return Long.MIN_VALUE; // the formatter rejects a day name that doesn't match the date
+        }
+        int offset = (offsetHours * 3600 + offsetMinutes * 60) * (sign == '-' ? -1 : 1);
+        return epochDay * 86400 + hour * 3600 + minute * 60 + second - offset;
+    }
+
+    /* @return index of the 3-letter name at text[start] among the names in table, or -1 */
+    private static int indexOf(String table, String text, int start) {
+        for (int i = 0; i < table.length(); i += 3) {
+            if (table.regionMatches(i, text, start, 3)) {
+                return i / 3;
+            }
+        }
+        return -1;
+    }
+
+    /* @return the decimal number in text[start .. start+count), or -1 if it has a non-digit */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /* @return days since 1970-01-01 of a proleptic Gregorian date, as in LocalDate.toEpochDay */
+    private static long epochDay(int year, int month, int day) {
+        // count years from March, so the leap day falls at the end of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400; // y >= 0 in a 4-digit year
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,49 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+
+/**
+ * Conversions between Instants and nanoseconds since the epoch held in a
+ * single long, which covers the years 1677 to 2262.
+ */
+final class EpochNanos {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private EpochNanos() {
+        // static methods only
+    }
+
+    /**
+     * @param instant an instant between the years 1677 and 2262
+     * @return nanoseconds from the epoch to instant
+     * @throws ArithmeticException if instant is outside the range of a long
+     */
+    static long of(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    /**
+     * @param instant any instant
+     * @return nanoseconds from the epoch to instant, clamped to
+     * [Long.MIN_VALUE, Long.MAX_VALUE]; suitable for range query bounds
+     */
+    static long saturated(Instant instant) {
+        try {
+            return of(instant);
+        } catch (ArithmeticException ae) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @param nanos nanoseconds from the epoch
+     * @return the instant nanos after the epoch
+     */
+    static Instant toInstant(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND));
+    }
+}
@@ -4,7 +4,6 @@
 package twitter;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -29,7 +28,7 @@ public class Filter {
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
         List<Tweet> ans = new ArrayList<>();
         for (Tweet tweet : tweets) {
-            if (username.equals(tweet.getAuthor())) {
+            if (isWrittenBy(tweet, username)) {
                 ans.add(tweet);
             }
         }
@@ -47,8 +46,7 @@ public class Filter {
     public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
         List<Tweet> ans = new ArrayList<>();
         for (Tweet tweet : tweets) {
-            if (tweet.getTimestamp().isAfter(timespan.getStart()) &&
-                tweet.getTimestamp().isBefore(timespan.getEnd())) {
+            if (isInTimespan(tweet, timespan)) {
                 ans.add(tweet);
             }
         }
@@ -70,20 +68,25 @@ public class Filter {
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
         List<Tweet> tweetList = new ArrayList<>();
-
+        // fold the query once, then compare each word of a tweet in place
+        char[][] folded = Words.foldAll(words);
         for (Tweet tweet : tweets) {
-            // split the tweet text into a list of words
-            String text = tweet.getText().toLowerCase().replaceAll("[^\\w\\s]", "");
-            List<String> textList = new ArrayList<>(Arrays.asList(text.split(" ")));
-            // if word is in the tweet text, add to result
-            for (String word : words) {
-                if (textList.contains(word.toLowerCase())) {
-                    tweetList.add(tweet);
-                    break;
-                }
+            if (Words.containsAny(tweet.getText(), folded)) {
+                tweetList.add(tweet);
             }
         }
         return tweetList;
     }
 
+    /* @return true iff tweet's author is username; usernames are case-insensitive, see Tweet.getAuthor() */
+    static boolean isWrittenBy(Tweet tweet, String username) {
+        return username.equalsIgnoreCase(tweet.getAuthor());
+    }
+
+    /* @return true iff tweet was sent during timespan; a Timespan includes its endpoints */
+    static boolean isInTimespan(Tweet tweet, Timespan timespan) {
+        return !tweet.getTimestamp().isBefore(timespan.getStart())
+            && !tweet.getTimestamp().isAfter(timespan.getEnd());
+    }
+
 }
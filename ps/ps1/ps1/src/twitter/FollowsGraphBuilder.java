@@ -0,0 +1,130 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A long-lived, thread-safe builder of the social network that
+ * SocialNetwork.guessFollowsGraph() infers from tweets.
+ * <p>
+ * Tweets are ingested one at a time or in batches, from any number of
+ * threads, and the follows map and each user's follower count are updated
+ * in place, so a continuous feed never needs a full rebuild. As in
+ * guessFollowsGraph(), the evidence that A follows B is that A @-mentions B;
+ * users can't follow themselves. Usernames are folded to lower case, so
+ * every user appears once whatever case they were written in.
+ * <p>
+ * Usernames are canonicalized through a UsernamePool, by default one owned by
+ * the builder, so they are held only as long as the builder is.
+ */
+public class FollowsGraphBuilder {
+
+    private final UsernamePool pool;
+    private final ConcurrentHashMap<String, Set<String>> follows = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> followerCounts = new ConcurrentHashMap<>();
+
+    // Abstraction function:
+    //   AF(pool, follows, followerCounts) = the social network in which A follows B
+    //     iff B is in follows.get(A); followerCounts.get(B) is the number of
+    //     users who follow B
+    // Rep invariant:
+    //   all usernames (keys and set members) are canonical instances from
+    //   pool, so the same user is always the same reference
+    //   A is never in follows.get(A)
+    //   for every B, followerCounts.get(B) = |{A : B in follows.get(A)}|, once
+    //   no ingest is in progress
+    // Safety from rep exposure:
+    //   all fields are private; snapshot() and followerCounts() return deep copies.
+    //   pool may be shared with the caller, but a pool only ever adds names
+    //   and hands out immutable Strings, so sharing it can't break the rep.
+    // Thread safety argument:
+    //   UsernamePool is thread-safe.
+    //   follows and followerCounts are concurrent maps, and each value set is a
+    //   concurrent set. An edge is counted only by the thread whose add() put it
+    //   into the set, so each follower is counted exactly once. The counts may
+    //   briefly lag the sets while an ingest is in progress.
+
+    /**
+     * Make a builder for an empty social network, with its own username pool.
+     */
+    public FollowsGraphBuilder() {
+        this(new UsernamePool());
+    }
+
+    /**
+     * Make a builder for an empty social network.
+     *
+     * @param pool pool to canonicalize usernames through, such as
+     *             UsernamePool.shared() to share names with other builders;
+     *             every username the builder sees is added to it
+     */
+    public FollowsGraphBuilder(UsernamePool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Add the evidence in one tweet to the network.
+     *
+     * @param tweet tweet to ingest
+     */
+    public void ingest(Tweet tweet) {
+        String author = pool.canonical(tweet.getAuthor());
+        Set<String> followed = follows.computeIfAbsent(author, user -> ConcurrentHashMap.newKeySet());
+
+        MentionScanner.scan(tweet.getText(), (text, start, end) -> {
+            String user = pool.canonical(text, start, end);
+            if (user != author && followed.add(user)) {
+                followerCounts.computeIfAbsent(user, u -> new AtomicInteger()).incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Add the evidence in a batch of tweets to the network.
+     *
+     * @param tweets tweets to ingest, not modified by this method
+     */
+    public void ingestAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            ingest(tweet);
+        }
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of users known to follow username, ignoring case
+     */
+    public int followerCount(String username) {
+        AtomicInteger count = followerCounts.get(username.toLowerCase(Locale.ROOT));
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return a copy of the current follower counts: every user with at least
+     * one follower, in lower case, mapped to their number of followers
+     */
+    public Map<String, Integer> followerCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        followerCounts.forEach((user, count) -> counts.put(user, count.get()));
+        return counts;
+    }
+
+    /**
+     * @return a copy of the current social network, as defined by
+     * SocialNetwork: every author seen so far is a key, mapped to the users
+     * they follow; all usernames are in lower case
+     */
+    public Map<String, Set<String>> snapshot() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        follows.forEach((user, followed) -> graph.put(user, new HashSet<>(followed)));
+        return graph;
+    }
+}
@@ -0,0 +1,51 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts hashtags from tweets, the counterpart of
+ * Extract.getMentionedUsers() for topics.
+ * <p>
+ * A hashtag is "#" followed by one or more characters valid in a Twitter
+ * username, with the same boundary rules as a username-mention: it cannot be
+ * immediately preceded or followed by any such character. So "issue#42" does
+ * NOT contain the hashtag 42, while "(#mit)" contains "mit". Hashtags are
+ * case-insensitive and reported in lower case, without the "#".
+ */
+public class Hashtags {
+
+    private Hashtags() {
+        // static methods only
+    }
+
+    /**
+     * Find every hashtag in a text.
+     *
+     * @param text text to scan
+     * @param sink receives each hashtag (without the "#") as an index range,
+     *             in order
+     */
+    public static void scan(CharSequence text, MentionScanner.Sink sink) {
+        MentionScanner.scan(text, '#', sink);
+    }
+
+    /**
+     * Get hashtags used in a list of tweets.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @return the set of hashtags used in the text of the tweets, in lower
+     * case, each at most once
+     */
+    public static Set<String> getHashtags(List<Tweet> tweets) {
+        UsernameSet hashtags = new UsernameSet();
+        MentionScanner.Sink sink = hashtags::add;
+        for (Tweet tweet : tweets) {
+            scan(tweet.getText(), sink);
+        }
+        return hashtags.toSet();
+    }
+}
@@ -0,0 +1,192 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+
+/**
+ * A mutable HyperLogLog sketch that estimates the number of distinct
+ * usernames added to it, ignoring case, in fixed memory.
+ * <p>
+ * A sketch of precision p holds 2^p one-byte registers, whatever the number
+ * of names added; the standard error of the estimate is about 1.04 / sqrt(2^p),
+ * so the default p = 14 uses 16KB for about 0.8% error. Sketches of equal
+ * precision can be merged, so each thread or batch can keep its own and the
+ * results combined afterwards, and a sketch can be saved with toBytes().
+ * <p>
+ * Not thread-safe.
+ */
+public class HyperLogLog {
+
+    /** Default precision: 2^14 registers, about 0.8% standard error. */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int MAGIC = 0x48594c4c; // "HYLL"
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    // Abstraction function:
+    //   AF(precision, registers) = an estimate of the number of distinct
+    //     folded names added, where registers[j] is the largest rank (position
+    //     of the first 1 bit after the index bits) among the 64-bit hashes
+    //     whose top `precision` bits equal j
+    // Rep invariant:
+    //   MIN_PRECISION <= precision <= MAX_PRECISION
+    //   registers.length = 2^precision
+    //   0 <= registers[j] <= 64 - precision + 1
+    // Safety from rep exposure:
+    //   all fields are private; toBytes() returns a fresh array.
+
+    private void checkRep() {
+        assert precision >= MIN_PRECISION && precision <= MAX_PRECISION;
+        assert registers.length == 1 << precision;
+    }
+
+    /**
+     * Make an empty sketch with the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param precision log2 of the number of registers, 4 <= precision <= 18
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in [4, 18]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+        checkRep();
+    }
+
+    /**
+     * Add a username.
+     *
+     * @param username a Twitter username
+     */
+    public void add(CharSequence username) {
+        add(username, 0, username.length());
+    }
+
+    /**
+     * Add the username text[start..end).
+     *
+     * @param text  text containing the username
+     * @param start index of the username's first character
+     * @param end   index just past the username
+     */
+    public void add(CharSequence text, int start, int end) {
+        addHash(UsernameSet.hash64(text, start, end));
+    }
+
+    /* Add an item by its 64-bit hash. */
+    void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // a sentinel bit bounds the rank when the remaining bits are all 0
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * @return estimated number of distinct usernames added, ignoring case
+     */
+    public long estimate() {
+        final int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros); // linear counting is more accurate when small
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Add every username in another sketch to this one.
+     *
+     * @param other a sketch with the same precision; not modified
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int j = 0; j < registers.length; j++) {
+            if (other.registers[j] > registers[j]) {
+                registers[j] = other.registers[j];
+            }
+        }
+    }
+
+    /**
+     * @return precision of this sketch
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * @return this sketch serialized as bytes, readable by fromBytes()
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+        write(buffer);
+        return buffer.array();
+    }
+
+    /* Write this sketch at the buffer's position, in the format of toBytes(). */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(precision).put(registers);
+    }
+
+    /* @return number of bytes that write() produces */
+    int serializedSize() {
+        return 2 * Integer.BYTES + registers.length;
+    }
+
+    /**
+     * @param bytes a sketch serialized by toBytes(); not modified
+     * @return a copy of that sketch
+     * @throws IllegalArgumentException if bytes is not a serialized sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+
+    /* Read a sketch serialized by toBytes() from the buffer's position. */
+    static HyperLogLog read(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("not a serialized HyperLogLog");
+            }
+            HyperLogLog sketch = new HyperLogLog(buffer.getInt());
+            buffer.get(sketch.registers);
+            for (byte register : sketch.registers) {
+                if (register < 0 || register > 64 - sketch.precision + 1) {
+                    throw new IllegalArgumentException("corrupt HyperLogLog register " + register);
+                }
+            }
+            return sketch;
+        } catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("truncated HyperLogLog", bue);
+        }
+    }
+}
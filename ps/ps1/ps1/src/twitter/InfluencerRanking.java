@@ -0,0 +1,133 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable ranking of the users in a social network (as defined by
+ * SocialNetwork) by follower count.
+ * <p>
+ * Users are interned to dense int ids and their followers are counted in a
+ * primitive array. ranked() orders every user with a counting sort over the
+ * follower counts, in O(users + maxCount); topK() keeps a bounded heap of k
+ * ids, in O(users log k). Users with equal counts are ordered by when they
+ * were first seen in the graph, so both methods agree on ties.
+ */
+public class InfluencerRanking {
+
+    private final UsernameSet users;
+    private final int[] followerCounts;
+
+    // Abstraction function:
+    //   AF(users, followerCounts) = the ranking in which user users.get(i) has
+    //     followerCounts[i] followers, ordered by count descending, then id ascending
+    // Rep invariant:
+    //   followerCounts.length = users.size()
+    //   followerCounts[i] >= 0
+    // Safety from rep exposure:
+    //   all fields are private and final; users is never handed out, and
+    //   results are fresh lists of immutable Strings.
+
+    private void checkRep() {
+        assert followerCounts.length == users.size();
+        for (int count : followerCounts) {
+            assert count >= 0;
+        }
+    }
+
+    private InfluencerRanking(UsernameSet users, int[] followerCounts) {
+        this.users = users;
+        this.followerCounts = followerCounts;
+        checkRep();
+    }
+
+    /**
+     * Rank the users of a social network.
+     *
+     * @param followsGraph a social network (as defined by SocialNetwork), not
+     *                     modified by this method
+     * @return a ranking of all distinct users in followsGraph, in lower case,
+     * whether they appear as keys or as followed users
+     */
+    public static InfluencerRanking of(Map<String, Set<String>> followsGraph) {
+        UsernameSet users = new UsernameSet();
+        int[] counts = new int[16];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            users.add(entry.getKey());
+            for (String followed : entry.getValue()) {
+                int id = users.add(followed);
+                if (id >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+                }
+                counts[id]++;
+            }
+        }
+        return new InfluencerRanking(users, Arrays.copyOf(counts, users.size()));
+    }
+
+    /**
+     * @return number of distinct users in the ranking
+     */
+    public int size() {
+        return followerCounts.length;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of followers of username, ignoring case; 0 if unknown
+     */
+    public int followerCount(String username) {
+        int id = users.indexOf(username);
+        return id < 0 ? 0 : followerCounts[id];
+    }
+
+    /**
+     * @return a list of all distinct users, in lower case, in descending order
+     * of follower count
+     */
+    public List<String> ranked() {
+        final int n = followerCounts.length;
+        int maxCount = 0;
+        for (int count : followerCounts) {
+            maxCount = Math.max(maxCount, count);
+        }
+        // counting sort: starts[c] = position of the first user with count c, highest count first
+        int[] starts = new int[maxCount + 2];
+        for (int count : followerCounts) {
+            starts[maxCount - count + 1]++;
+        }
+        for (int c = 1; c < starts.length; c++) {
+            starts[c] += starts[c - 1];
+        }
+        String[] order = new String[n];
+        for (int id = 0; id < n; id++) {
+            order[starts[maxCount - followerCounts[id]]++] = users.get(id);
+        }
+        return new ArrayList<>(Arrays.asList(order));
+    }
+
+    /**
+     * @param k how many users to return, k >= 0
+     * @return the min(k, size()) users with the most followers, in lower case,
+     * in descending order of follower count; the same as the first k of ranked()
+     */
+    public List<String> topK(int k) {
+        List<String> top = new ArrayList<>();
+        for (int id : TopIds.top(followerCounts.length, k, this::ranksBefore)) {
+            top.add(users.get(id));
+        }
+        return top;
+    }
+
+    /* @return true iff user a comes before user b in the ranking */
+    private boolean ranksBefore(int a, int b) {
+        return followerCounts[a] > followerCounts[b]
+            || (followerCounts[a] == followerCounts[b] && a < b);
+    }
+}
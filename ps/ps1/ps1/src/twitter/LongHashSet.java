@@ -0,0 +1,139 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * A growable set of longs, such as tweet ids, without boxing: an
+ * open-addressing table with linear probing, kept at most half full.
+ * Removal shifts later entries of the probe run back, so there are no
+ * tombstones and lookups stay short however many ids come and go.
+ */
+final class LongHashSet {
+
+    /* 0 marks an empty slot; the key 0 itself is tracked by containsZero. */
+    private long[] keys;
+    private boolean containsZero = false;
+    private int size = 0;
+
+    // Rep invariant:
+    //   keys.length is a power of two and at least 2 * size
+    //   the nonzero keys in keys are distinct, and each is reachable by linear
+    //     probing from slot(key) without crossing an empty slot
+    //   size = number of nonzero keys + (containsZero ? 1 : 0)
+
+    LongHashSet() {
+        this(16);
+    }
+
+    LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity < 2L * expectedSize) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+    }
+
+    /* @return true iff key was not already in the set */
+    boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (long k; (k = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (k == key) {
+                return false;
+            }
+        }
+        keys[slot] = key;
+        if (2 * ++size > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* @return true iff key was in the set */
+    boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // shift back any later key of the run that would no longer be reachable
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        int mask = keys.length - 1;
+        for (long key : old) {
+            if (key != 0) {
+                int slot = slot(key, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    /* Home slot of a key: ids are often sequential, so mix every bit first. */
+    private static int slot(long key, int mask) {
+        long h = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL; // MurmurHash3 finalizer
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33)) & mask;
+    }
+}
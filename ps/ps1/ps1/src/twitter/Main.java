@@ -3,9 +3,9 @@
  */
 package twitter;
 
-import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,8 +35,13 @@ public class Main {
     /**
      * Main method of the program. Fetches a sample of tweets and prints some
      * facts about it.
+     * <p>
+     * Prints the top influencers on stdout, one per line, and the facts on
+     * stderr. With --more, also prints the top users by influence score and
+     * the trending hashtags on stdout, each list after a header line.
      *
-     * @param args command-line arguments (not used)
+     * @param args URLs of more tweet servers to merge with the sample, if
+     *             any, and optionally --more
      */
     public static void main(String[] args) {
         try {
@@ -45,11 +50,30 @@ public class Main {
         } catch (AssertionError ae) {
         }
 
-        final List<Tweet> tweets;
-        try {
-            tweets = TweetReader.readTweetsFromWeb(SAMPLE_SERVER);
-        } catch (IOException ioe) {
-            throw new RuntimeException(ioe);
+        final List<URL> sources = new ArrayList<>();
+        sources.add(SAMPLE_SERVER);
+        boolean more = false;
+        for (String arg : args) {
+            if (arg.equals("--more")) {
+                more = true;
+                continue;
+            }
+            try {
+                sources.add(new URL(arg));
+            } catch (MalformedURLException murle) {
+                throw new IllegalArgumentException("not a URL: " + arg, murle);
+            }
+        }
+
+        final List<Tweet> tweets = new ArrayList<>();
+        try (TweetFetcher fetcher = TweetFetcher.fetch(sources)) {
+            fetcher.forEachRemaining(tweets::add);
+            for (Map.Entry<URL, Exception> failure : fetcher.failures().entrySet()) {
+                System.err.println("could not read " + failure.getKey() + ": " + failure.getValue());
+            }
+            if (tweets.isEmpty() && !fetcher.failures().isEmpty()) {
+                throw new RuntimeException(fetcher.failures().values().iterator().next());
+            }
         }
 
         // display some characteristics about the tweets
@@ -67,10 +91,30 @@ public class Main {
 
         // print the top-N influencers
         final int count = 10;
-        final List<String> influencers = SocialNetwork.influencers(followsGraph);
-        for (String username : influencers.subList(0, Math.min(count, influencers.size()))) {
+        final List<String> influencers = InfluencerRanking.of(followsGraph).topK(count);
+        for (String username : influencers) {
+            System.out.println(username);
+        }
+
+        if (!more) {
+            return;
+        }
+
+        // and the top-N by influence score, which weighs who the followers are
+        System.out.println();
+        System.out.println("by influence score:");
+        for (String username : PageRank.of(followsGraph).topK(count)) {
             System.out.println(username);
         }
+
+        // and the hashtags trending at the end of the sample
+        final TrendingHashtags trending = new TrendingHashtags();
+        trending.addAll(tweets);
+        System.out.println();
+        System.out.println("trending hashtags:");
+        for (String hashtag : trending.top(count).keySet()) {
+            System.out.println("#" + hashtag);
+        }
     }
 
 }
@@ -0,0 +1,102 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * A hand-written scanner for username-mentions in tweet text.
+ * <p>
+ * A username-mention is "@" followed by a Twitter username (as defined by
+ * Tweet.getAuthor()'s spec), and it cannot be immediately preceded or followed
+ * by any character valid in a Twitter username. So "bitdiddle@mit.edu" does
+ * NOT mention "mit", while "(@alyssa)" mentions "alyssa".
+ * <p>
+ * The scanner reports mentions as index ranges into the text, so callers such
+ * as UsernameSet can fold and look them up without creating a String per
+ * mention.
+ */
+public class MentionScanner {
+
+    /**
+     * Receives the mentions found by the scanner.
+     */
+    public interface Sink {
+
+        /**
+         * Called once per mention, in the order they appear in the text.
+         *
+         * @param text  the scanned text
+         * @param start index of the first character of the username (just after "@")
+         * @param end   index just past the last character of the username
+         */
+        void mention(CharSequence text, int start, int end);
+    }
+
+    private MentionScanner() {
+        // static methods only
+    }
+
+    /**
+     * Find every username-mention in a text.
+     *
+     * @param text text to scan
+     * @param sink receives each mention, in order
+     */
+    public static void scan(CharSequence text, Sink sink) {
+        scan(text, '@', sink);
+    }
+
+    /**
+     * Find every run of username characters introduced by a marker character,
+     * using the username-mention boundary rules: the marker must not follow a
+     * username character, and the run is as long as possible.
+     *
+     * @param text   text to scan
+     * @param marker character that introduces a run, such as '@'.
+     *               Requires that marker is not a username character.
+     * @param sink   receives each run (without the marker), in order
+     */
+    static void scan(CharSequence text, char marker, Sink sink) {
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (text.charAt(i) != marker || (i > 0 && isUsernameChar(text.charAt(i - 1)))) {
+                i++;
+                continue;
+            }
+            int start = i + 1;
+            int end = start;
+            while (end < length && isUsernameChar(text.charAt(end))) {
+                end++;
+            }
+            if (end > start) {
+                sink.mention(text, start, end);
+            }
+            i = end;
+        }
+    }
+
+    /**
+     * Add the usernames mentioned in some tweets to a set.
+     *
+     * @param tweets    tweets to scan, not modified by this method
+     * @param mentioned set that receives every mentioned username
+     */
+    public static void addMentions(Iterable<Tweet> tweets, UsernameSet mentioned) {
+        Sink sink = mentioned::add;
+        for (Tweet tweet : tweets) {
+            scan(tweet.getText(), sink);
+        }
+    }
+
+    /**
+     * @param c character to test
+     * @return true iff c may appear in a Twitter username: A-Z, a-z, 0-9, "_" or "-"
+     */
+    public static boolean isUsernameChar(char c) {
+        return (c >= 'a' && c <= 'z')
+            || (c >= 'A' && c <= 'Z')
+            || (c >= '0' && c <= '9')
+            || c == '_' || c == '-';
+    }
+}
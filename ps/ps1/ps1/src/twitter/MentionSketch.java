@@ -0,0 +1,422 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A mutable, fixed-memory summary of the @-mentions in a stream of tweets: a
+ * sketch-based alternative to Extract.getMentionedUsers() for streams too big
+ * to hold the exact set.
+ * <p>
+ * The number of distinct mentioned users is estimated with a HyperLogLog,
+ * and mention counts with a Count-Min sketch. The users mentioned most are
+ * tracked with a min-heap of the k best candidates by estimated count: a
+ * user enters the heap when their estimate beats the weakest candidate's. A
+ * small hash table from user to heap position finds a candidate that is
+ * mentioned again in constant time. Memory is fixed by the sketch dimensions and k, however long the stream.
+ * <p>
+ * As in Extract.getMentionedUsers(), each user counts once per tweet that
+ * mentions them, and usernames are case-insensitive and reported in lower
+ * case. Summaries of equal dimensions can be merged, so each thread or batch
+ * can keep its own, and a summary can be saved with toBytes().
+ * <p>
+ * Not thread-safe.
+ */
+public class MentionSketch {
+
+    /** Default number of most-mentioned users tracked. */
+    public static final int DEFAULT_TOP_K = 100;
+
+    /** Largest number of most-mentioned users a summary can track. */
+    public static final int MAX_TOP_K = 1 << 16;
+
+    private static final int MAGIC = 0x4d534b54; // "MSKT"
+
+    private final HyperLogLog distinct;
+    private final CountMinSketch counts;
+    private final int k;
+    private final long[] heapHashes;
+    private final long[] heapCounts;
+    private final String[] heapNames;
+    private int heapSize = 0;
+    private final HeapIndex index;
+    private final UsernameSet mentioned = new UsernameSet();
+
+    // Abstraction function:
+    //   AF(distinct, counts, k, heap*) = a summary of a stream of mentions, in
+    //     which distinct estimates the number of distinct mentioned users,
+    //     counts estimates each user's mention count, and heapNames[0..heapSize)
+    //     are the (up to k) users with the highest estimates seen, with hashes
+    //     heapHashes and estimates heapCounts
+    // Rep invariant:
+    //   0 <= heapSize <= k; the heap arrays have length k
+    //   heap[0..heapSize) is a min-heap on heapCounts
+    //   heapNames are distinct lower-case usernames, heapHashes their hash64
+    //   index maps heapHashes[i] to i for each i < heapSize, and nothing else
+    //   (mentioned is per-tweet scratch space, empty between calls)
+    // Safety from rep exposure:
+    //   all fields are private; topMentioned() returns a fresh map of immutable values.
+
+    private void checkRep() {
+        assert heapSize >= 0 && heapSize <= k;
+        assert index.size() == heapSize;
+        for (int i = 0; i < heapSize; i++) {
+            assert i == 0 || heapCounts[(i - 1) / 2] <= heapCounts[i];
+            assert index.get(heapHashes[i]) == i;
+        }
+    }
+
+    /**
+     * Make an empty summary with the default sketch sizes and top-K size.
+     */
+    public MentionSketch() {
+        this(HyperLogLog.DEFAULT_PRECISION, CountMinSketch.DEFAULT_WIDTH, CountMinSketch.DEFAULT_DEPTH, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Make an empty summary.
+     *
+     * @param precision HyperLogLog precision, see HyperLogLog(int)
+     * @param width     Count-Min width, see CountMinSketch(int, int)
+     * @param depth     Count-Min depth, see CountMinSketch(int, int)
+     * @param k         number of most-mentioned users to track,
+     *                  1 <= k <= MAX_TOP_K
+     */
+    public MentionSketch(int precision, int width, int depth, int k) {
+        this(new HyperLogLog(precision), new CountMinSketch(width, depth), k);
+    }
+
+    private MentionSketch(HyperLogLog distinct, CountMinSketch counts, int k) {
+        if (k < 1 || k > MAX_TOP_K) {
+            throw new IllegalArgumentException("k must be in [1, " + MAX_TOP_K + "]: " + k);
+        }
+        this.distinct = distinct;
+        this.counts = counts;
+        this.k = k;
+        this.heapHashes = new long[k];
+        this.heapCounts = new long[k];
+        this.heapNames = new String[k];
+        this.index = new HeapIndex(k);
+        checkRep();
+    }
+
+    /**
+     * Add the mentions in a tweet.
+     *
+     * @param tweet tweet to summarize
+     */
+    public void add(Tweet tweet) {
+        mentioned.clear();
+        MentionScanner.scan(tweet.getText(), (text, start, end) -> {
+            int seen = mentioned.size();
+            if (mentioned.add(text, start, end) == seen) { // first mention of this user in the tweet
+                long hash = UsernameSet.hash64(text, start, end);
+                distinct.addHash(hash);
+                offer(hash, counts.addHash(hash, 1), text, start, end);
+            }
+        });
+        checkRep();
+    }
+
+    /**
+     * Add the mentions in a batch of tweets.
+     *
+     * @param tweets tweets to summarize, not modified by this method
+     */
+    public void addAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return estimated number of distinct users mentioned, ignoring case
+     */
+    public long distinctUsers() {
+        return distinct.estimate();
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return estimated number of tweets that mention username, ignoring case;
+     * never less than the true number
+     */
+    public long mentionCount(String username) {
+        return counts.estimate(username);
+    }
+
+    /**
+     * @return the (up to k) most-mentioned users, in lower case, mapped to
+     * their estimated mention counts, in descending order of count
+     */
+    public Map<String, Long> topMentioned() {
+        Integer[] order = new Integer[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> heapCounts[a] != heapCounts[b]
+            ? Long.compare(heapCounts[b], heapCounts[a]) : heapNames[a].compareTo(heapNames[b]));
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i : order) {
+            top.put(heapNames[i], heapCounts[i]);
+        }
+        return top;
+    }
+
+    /**
+     * Add everything summarized by another summary to this one. The top users
+     * are re-ranked by their estimates in the merged sketch.
+     *
+     * @param other a summary with the same sketch dimensions and k; not modified
+     * @throws IllegalArgumentException if the dimensions or k differ, in which
+     *                                  case this summary is unchanged
+     */
+    public void merge(MentionSketch other) {
+        if (other.k != k || other.distinct.precision() != distinct.precision()
+            || other.counts.width() != counts.width() || other.counts.depth() != counts.depth()) {
+            throw new IllegalArgumentException("cannot merge a " + other.dimensions() + " summary into a "
+                + dimensions() + " summary");
+        }
+        distinct.merge(other.distinct);
+        counts.merge(other.counts);
+
+        // the candidates of both heaps, each once
+        int size = heapSize;
+        long[] hashes = Arrays.copyOf(heapHashes, heapSize + other.heapSize);
+        String[] names = Arrays.copyOf(heapNames, heapSize + other.heapSize);
+        for (int i = 0; i < other.heapSize; i++) {
+            if (index.get(other.heapHashes[i]) < 0) {
+                hashes[size] = other.heapHashes[i];
+                names[size++] = other.heapNames[i];
+            }
+        }
+        heapSize = 0;
+        index.clear();
+        for (int i = 0; i < size; i++) {
+            offer(hashes[i], counts.estimateHash(hashes[i]), names[i], 0, names[i].length());
+        }
+        checkRep();
+    }
+
+    /* @return a description of this summary's dimensions, for error messages */
+    private String dimensions() {
+        return "precision-" + distinct.precision() + " " + counts.width() + "x" + counts.depth() + " top-" + k;
+    }
+
+    /**
+     * @return this summary serialized as bytes, readable by fromBytes()
+     */
+    public byte[] toBytes() {
+        byte[][] names = new byte[heapSize][];
+        int size = 2 * Integer.BYTES + distinct.serializedSize() + counts.serializedSize();
+        for (int i = 0; i < heapSize; i++) {
+            names[i] = heapNames[i].getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + names[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size + Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(k);
+        distinct.write(buffer);
+        counts.write(buffer);
+        buffer.putInt(heapSize);
+        for (byte[] name : names) {
+            buffer.putInt(name.length).put(name);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @param bytes a summary serialized by toBytes(); not modified
+     * @return a copy of that summary
+     * @throws IllegalArgumentException if bytes is not a serialized summary
+     */
+    public static MentionSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("not a serialized MentionSketch");
+            }
+            int k = buffer.getInt();
+            if (k < 1 || k > MAX_TOP_K) {
+                throw new IllegalArgumentException("corrupt MentionSketch top-k size " + k);
+            }
+            MentionSketch sketch = new MentionSketch(HyperLogLog.read(buffer), CountMinSketch.read(buffer), k);
+            int size = buffer.getInt();
+            if (size < 0 || size > k) {
+                throw new IllegalArgumentException("corrupt MentionSketch heap size " + size);
+            }
+            for (int i = 0; i < size; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IllegalArgumentException("corrupt MentionSketch name length " + length);
+                }
+                byte[] name = new byte[length];
+                buffer.get(name);
+                String username = new String(name, StandardCharsets.UTF_8);
+                long hash = UsernameSet.hash64(username, 0, username.length());
+                sketch.offer(hash, sketch.counts.estimateHash(hash), username, 0, username.length());
+            }
+            sketch.checkRep();
+            return sketch;
+        } catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("truncated MentionSketch", bue);
+        }
+    }
+
+    /*
+     * Offer a user with a new estimate to the top-k heap. Allocates the
+     * user's String only when they enter the heap.
+     */
+    private void offer(long hash, long estimate, CharSequence text, int start, int end) {
+        int position = index.get(hash);
+        if (position >= 0) {
+            heapCounts[position] = estimate; // estimates only grow, so the entry can only sink
+            siftDown(position);
+            return;
+        }
+        if (heapSize < k) {
+            heapHashes[heapSize] = hash;
+            heapCounts[heapSize] = estimate;
+            heapNames[heapSize] = UsernameSet.fold(text, start, end);
+            index.put(hash, heapSize);
+            siftUp(heapSize++);
+        } else if (estimate > heapCounts[0]) {
+            index.remove(heapHashes[0]);
+            heapHashes[0] = hash;
+            heapCounts[0] = estimate;
+            heapNames[0] = UsernameSet.fold(text, start, end);
+            index.put(hash, 0);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heapCounts[parent] <= heapCounts[index]) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapCounts[child + 1] < heapCounts[child]) {
+                child++;
+            }
+            if (heapCounts[index] <= heapCounts[child]) {
+                break;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long hash = heapHashes[i];
+        heapHashes[i] = heapHashes[j];
+        heapHashes[j] = hash;
+        long count = heapCounts[i];
+        heapCounts[i] = heapCounts[j];
+        heapCounts[j] = count;
+        String name = heapNames[i];
+        heapNames[i] = heapNames[j];
+        heapNames[j] = name;
+        index.put(heapHashes[i], i);
+        index.put(heapHashes[j], j);
+    }
+
+    /**
+     * A map from the hashes of the users in the heap to their positions: an
+     * open-addressing table with linear probing, at most half full, whose
+     * removals shift later entries of the probe run back, as in LongHashSet.
+     */
+    private static final class HeapIndex {
+
+        private final long[] hashes;
+        /* position + 1 of the user in each slot; 0 marks an empty slot */
+        private final int[] positions;
+        private int size = 0;
+
+        HeapIndex(int k) {
+            int capacity = 16;
+            while (capacity < 2L * k) {
+                capacity <<= 1;
+            }
+            hashes = new long[capacity];
+            positions = new int[capacity];
+        }
+
+        /* @return position of hash, or -1 if it is not in the heap */
+        int get(long hash) {
+            int mask = hashes.length - 1;
+            for (int slot = slot(hash, mask); positions[slot] != 0; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash) {
+                    return positions[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        /* Map hash to position, adding or replacing its entry. */
+        void put(long hash, int position) {
+            int mask = hashes.length - 1;
+            int slot = slot(hash, mask);
+            while (positions[slot] != 0 && hashes[slot] != hash) {
+                slot = (slot + 1) & mask;
+            }
+            if (positions[slot] == 0) {
+                size++;
+            }
+            hashes[slot] = hash;
+            positions[slot] = position + 1;
+        }
+
+        /* Remove hash, which must be present. */
+        void remove(long hash) {
+            int mask = hashes.length - 1;
+            int slot = slot(hash, mask);
+            while (hashes[slot] != hash || positions[slot] == 0) {
+                slot = (slot + 1) & mask;
+            }
+            // shift back any later entry of the run that would no longer be reachable
+            int hole = slot;
+            for (int next = (hole + 1) & mask; positions[next] != 0; next = (next + 1) & mask) {
+                int home = slot(hashes[next], mask);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    hashes[hole] = hashes[next];
+                    positions[hole] = positions[next];
+                    hole = next;
+                }
+            }
+            positions[hole] = 0;
+            size--;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(positions, 0);
+            size = 0;
+        }
+
+        /* Home slot of a hash; hash64 is already well mixed. */
+        private static int slot(long hash, int mask) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
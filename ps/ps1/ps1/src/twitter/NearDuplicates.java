@@ -0,0 +1,392 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable clustering of a list of tweets into groups of near-duplicate
+ * texts, such as retweets and copy-pasted spam.
+ * <p>
+ * A tweet's text is normalized (lower case; punctuation and whitespace runs
+ * collapsed to one space; a leading "RT @user:" and links removed) and cut
+ * into overlapping 5-character shingles. Two tweets are near-duplicates when
+ * the Jaccard similarity of their shingle sets is at least a threshold. A
+ * text that normalizes to nothing, such as a bare link, has no shingles, so
+ * it is a near-duplicate of no other tweet.
+ * <p>
+ * Similarity is estimated with MinHash: each tweet gets a signature of 64
+ * minimum shingle hashes, and the fraction of positions where two
+ * signatures agree estimates their similarity. Signatures use
+ * one-permutation hashing, so each shingle is hashed once rather than 64
+ * times, and are computed in parallel chunks into one flat int array, with
+ * one scratch buffer per chunk. Instead of comparing all pairs, signatures
+ * are split into 16 bands of 4 rows, and tweets whose band values agree land
+ * in the same bucket (locality-sensitive hashing). Each tweet is compared
+ * only with the first tweet of each of its buckets, and joined to that
+ * tweet's cluster if their estimated similarity reaches the threshold. The
+ * bands are bucketed in parallel. So clustering is linear in the number of
+ * tweets, and near-duplicates are
+ * found with high probability: above 99.9% for a similarity of 0.8.
+ * <p>
+ * Clusters are closed under this relation: a chain of near-duplicates forms
+ * one cluster even if its ends are less similar.
+ */
+public class NearDuplicates {
+
+    /** Default similarity threshold: texts sharing 80% of their shingles. */
+    public static final double DEFAULT_THRESHOLD = 0.8;
+
+    private static final int SHINGLE = 5;
+    /* 64 bins, so the set of filled bins fits in a long. */
+    private static final int BIN_BITS = 6;
+    private static final int HASHES = 1 << BIN_BITS;
+    private static final int BANDS = 16;
+    private static final int ROWS = HASHES / BANDS;
+    /* Tweets per parallel chunk of signature computation. */
+    private static final int CHUNK = 1 << 10;
+
+    private final List<Tweet> tweets;
+    private final int[] cluster;
+
+    // Abstraction function:
+    //   AF(tweets, cluster) = the partition of tweets in which tweets.get(i)
+    //     and tweets.get(j) are in the same cluster iff cluster[i] = cluster[j]
+    // Rep invariant:
+    //   cluster.length = tweets.size()
+    //   cluster[i] is the index of the first tweet of i's cluster, so
+    //     cluster[i] <= i and cluster[cluster[i]] = cluster[i]
+    // Safety from rep exposure:
+    //   all fields are private and final; tweets is an unmodifiable copy of
+    //   immutable Tweets, and cluster is never returned.
+
+    private void checkRep() {
+        assert cluster.length == tweets.size();
+        for (int i = 0; i < cluster.length; i++) {
+            assert cluster[i] <= i && cluster[cluster[i]] == cluster[i];
+        }
+    }
+
+    private NearDuplicates(List<Tweet> tweets, int[] cluster) {
+        this.tweets = tweets;
+        this.cluster = cluster;
+        checkRep();
+    }
+
+    /**
+     * Cluster tweets by near-duplicate text at the default threshold.
+     *
+     * @param tweets tweets to cluster, not modified by this method
+     * @return the clustering
+     */
+    public static NearDuplicates of(List<Tweet> tweets) {
+        return of(tweets, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Cluster tweets by near-duplicate text.
+     *
+     * @param tweets    tweets to cluster, not modified by this method
+     * @param threshold estimated shingle similarity at which two tweets are
+     *                  near-duplicates, 0 < threshold <= 1
+     * @return the clustering
+     */
+    public static NearDuplicates of(List<Tweet> tweets, double threshold) {
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("threshold must be in (0, 1]: " + threshold);
+        }
+        final List<Tweet> copy = Collections.unmodifiableList(new ArrayList<>(tweets));
+        final int n = copy.size();
+        final boolean[] empty = new boolean[n];
+        final int[] signatures = signatures(copy, empty);
+        final int minAgreements = (int) Math.ceil(threshold * HASHES);
+
+        // bucket each band independently, in parallel, collecting similar pairs
+        final IntList[] pairs = new IntList[BANDS];
+        IntStream.range(0, BANDS).parallel().forEach(band -> {
+            BandTable firsts = new BandTable(n);
+            IntList similarPairs = new IntList();
+            for (int i = 0; i < n; i++) {
+                if (empty[i]) {
+                    continue;
+                }
+                int first = firsts.putIfAbsent(bandKey(signatures, i, band), i);
+                if (first != i && similar(signatures, i, first, minAgreements)) {
+                    similarPairs.add(i);
+                    similarPairs.add(first);
+                }
+            }
+            pairs[band] = similarPairs;
+        });
+
+        final int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        for (IntList similarPairs : pairs) {
+            for (int k = 0; k < similarPairs.size(); k += 2) {
+                union(parent, similarPairs.get(k), similarPairs.get(k + 1));
+            }
+        }
+
+        // label each tweet with the first tweet of its cluster
+        final int[] cluster = new int[n];
+        final int[] firstOfRoot = new int[n];
+        Arrays.fill(firstOfRoot, -1);
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            if (firstOfRoot[root] < 0) {
+                firstOfRoot[root] = i;
+            }
+            cluster[i] = firstOfRoot[root];
+        }
+        return new NearDuplicates(copy, cluster);
+    }
+
+    /**
+     * @return the clusters of two or more near-duplicate tweets, each in
+     * input order, ordered by their first tweet's position in the input
+     */
+    public List<List<Tweet>> clusters() {
+        int[] sizes = new int[cluster.length];
+        for (int first : cluster) {
+            sizes[first]++;
+        }
+        List<List<Tweet>> clusters = new ArrayList<>();
+        int[] index = new int[cluster.length];
+        for (int i = 0; i < cluster.length; i++) {
+            int first = cluster[i];
+            if (sizes[first] < 2) {
+                continue;
+            }
+            if (first == i) {
+                index[i] = clusters.size();
+                clusters.add(new ArrayList<>(sizes[i]));
+            }
+            clusters.get(index[first]).add(tweets.get(i));
+        }
+        return clusters;
+    }
+
+    /**
+     * @return the first tweet of every cluster, including tweets with no
+     * near-duplicate, in input order; so each text is counted once
+     */
+    public List<Tweet> distinct() {
+        List<Tweet> distinct = new ArrayList<>();
+        for (int i = 0; i < cluster.length; i++) {
+            if (cluster[i] == i) {
+                distinct.add(tweets.get(i));
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * @param i index of a tweet in the clustered list
+     * @param j index of another tweet in the clustered list
+     * @return true iff tweets i and j are in the same cluster
+     */
+    public boolean sameCluster(int i, int j) {
+        return cluster[i] == cluster[j];
+    }
+
+    /*
+     * @return the MinHash signatures of the tweets' texts, HASHES ints per
+     * tweet, computed in parallel chunks; all 0 for a text that normalizes
+     * to nothing
+     */
+    static int[] signatures(List<Tweet> tweets) {
+        return signatures(tweets, new boolean[tweets.size()]);
+    }
+
+    /*
+     * @param empty set to true at the index of each tweet whose text
+     *              normalizes to nothing, whose signature is left all 0;
+     *              empty.length = tweets.size()
+     * @return the MinHash signatures of the tweets' texts, as signatures(tweets)
+     */
+    private static int[] signatures(List<Tweet> tweets, boolean[] empty) {
+        final int n = tweets.size();
+        final int[] signatures = new int[n * HASHES];
+        final int chunks = (n + CHUNK - 1) / CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            char[] scratch = new char[160];
+            long[] mins = new long[HASHES];
+            for (int i = c * CHUNK, end = Math.min(i + CHUNK, n); i < end; i++) {
+                String text = tweets.get(i).getText();
+                if (scratch.length < text.length()) {
+                    scratch = new char[text.length()];
+                }
+                int length = normalize(text, scratch);
+                if (length == 0) {
+                    empty[i] = true;
+                    continue; // no shingles: leave the signature zeroed
+                }
+                signature(scratch, length, mins);
+                for (int h = 0; h < HASHES; h++) {
+                    signatures[i * HASHES + h] = (int) (mins[h] ^ (mins[h] >>> 32));
+                }
+            }
+        });
+        return signatures;
+    }
+
+    /*
+     * Normalize text into out: lower case letters and digits, and "@", "#"
+     * and "_", with every other run of characters as one space; drops a
+     * leading "RT @user:" and any token starting with "http".
+     *
+     * @return length of the normalized text in out; out.length >= text.length()
+     */
+    static int normalize(String text, char[] out) {
+        int i = 0;
+        final int length = text.length();
+        if (text.regionMatches(true, 0, "RT @", 0, 4)) {
+            int end = 4;
+            while (end < length && MentionScanner.isUsernameChar(text.charAt(end))) {
+                end++;
+            }
+            if (end > 4 && end < length && text.charAt(end) == ':') {
+                i = end + 1;
+            }
+        }
+        int size = 0;
+        boolean space = true; // no leading space
+        while (i < length) {
+            char c = text.charAt(i);
+            if (space && (c == 'h' || c == 'H') && text.regionMatches(true, i, "http", 0, 4)) {
+                while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                    i++; // skip the link
+                }
+                continue;
+            }
+            if (Character.isLetterOrDigit(c) || c == '@' || c == '#' || c == '_') {
+                out[size++] = Character.toLowerCase(c);
+                space = false;
+            } else if (!space) {
+                out[size++] = ' ';
+                space = true;
+            }
+            i++;
+        }
+        if (size > 0 && out[size - 1] == ' ') {
+            size--;
+        }
+        return size;
+    }
+
+    /*
+     * Fill mins with the one-permutation MinHash signature of the shingles of
+     * chars[0..length): each shingle is hashed once, the top bits of its hash
+     * pick one of HASHES bins, and each bin keeps the minimum hash. An empty
+     * bin borrows from the nearest nonempty bin to its right (circularly),
+     * mixed with the distance, so that signatures remain comparable position
+     * by position (rotation densification). Requires length > 0.
+     */
+    private static void signature(char[] chars, int length, long[] mins) {
+        Arrays.fill(mins, Long.MAX_VALUE);
+        long filled = 0; // bit h is set iff bin h got a shingle
+        int shingles = Math.max(1, length - SHINGLE + 1); // a short text is one shingle
+        for (int s = 0; s < shingles; s++) {
+            long shingle = 0;
+            for (int k = s, end = Math.min(s + SHINGLE, length); k < end; k++) {
+                shingle = shingle * 0x10001L + chars[k];
+            }
+            long hash = mix(shingle);
+            int bin = (int) (hash >>> (64 - BIN_BITS));
+            if (hash < mins[bin]) {
+                mins[bin] = hash;
+            }
+            filled |= 1L << bin;
+        }
+        for (int h = 0; h < HASHES; h++) {
+            if ((filled & (1L << h)) == 0) {
+                int distance = Long.numberOfTrailingZeros(Long.rotateRight(filled, h));
+                mins[h] = mix(mins[(h + distance) & (HASHES - 1)] + distance);
+            }
+        }
+    }
+
+    /* @return true iff the signatures of tweets i and j agree in at least minAgreements positions */
+    private static boolean similar(int[] signatures, int i, int j, int minAgreements) {
+        int allowed = HASHES - minAgreements; // disagreements
+        for (int h = 0; h < HASHES; h++) {
+            if (signatures[i * HASHES + h] != signatures[j * HASHES + h] && --allowed < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* @return a hash of one band of a tweet's signature */
+    private static long bandKey(int[] signatures, int i, int band) {
+        long key = band;
+        for (int r = 0, base = i * HASHES + band * ROWS; r < ROWS; r++) {
+            key = mix(key * 31 + signatures[base + r]);
+        }
+        return key;
+    }
+
+    /* MurmurHash3's 64-bit finalizer. */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]]; // path halving
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int i, int j) {
+        int a = find(parent, i);
+        int b = find(parent, j);
+        if (a != b) {
+            parent[Math.max(a, b)] = Math.min(a, b);
+        }
+    }
+
+    /**
+     * An open-addressing map from band keys to the first tweet seen with that
+     * key.
+     */
+    private static final class BandTable {
+        private final long[] keys;
+        private final int[] values;
+
+        BandTable(int expectedSize) {
+            int capacity = 16;
+            while (capacity < 2L * expectedSize) {
+                capacity <<= 1;
+            }
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+        }
+
+        /* @return the value already mapped to key, or value after mapping key to it */
+        int putIfAbsent(long key, int value) {
+            int mask = keys.length - 1;
+            for (int slot = (int) key & mask; ; slot = (slot + 1) & mask) {
+                if (values[slot] < 0) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    return value;
+                }
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+        }
+    }
+}
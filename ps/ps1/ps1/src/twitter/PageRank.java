@@ -0,0 +1,246 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable ranking of the users in a social network (as defined by
+ * SocialNetwork) by PageRank influence score.
+ * <p>
+ * A user's score is the probability that a random walk along follows edges
+ * is at that user, where each step follows a random edge with probability
+ * `damping` and jumps to a uniformly random user otherwise. Users who follow
+ * nobody (dangling users) spread their score evenly over everyone. Unlike a
+ * follower count, a follow is worth more when it comes from an influential
+ * user who follows few others, so it is much harder to inflate.
+ * <p>
+ * Scores are computed by power iteration over a CompactFollowsGraph on
+ * primitive double arrays. Each iteration pulls scores along the
+ * followed-by rows, so every user's new score is written by exactly one
+ * task and users are processed in parallel chunks without locking. The
+ * iteration stops when the L1 change between iterations drops below
+ * `tolerance`, or after `maxIterations` iterations.
+ */
+public class PageRank {
+
+    /** Probability of following an edge rather than jumping, as in the original PageRank paper. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /** Default bound on the L1 change between iterations at convergence. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /** Default cap on the number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /* Users per parallel chunk; one chunk is a few microseconds of work on a sparse graph. */
+    private static final int CHUNK = 1 << 12;
+
+    private final CompactFollowsGraph graph;
+    private final double[] scores;
+    private final int iterations;
+    private final boolean converged;
+
+    // Abstraction function:
+    //   AF(graph, scores, iterations, converged) = the ranking in which user
+    //     graph.username(i) has influence score scores[i], ordered by score
+    //     descending, then id ascending; the scores were reached after
+    //     `iterations` iterations, within tolerance iff converged
+    // Rep invariant:
+    //   scores.length = graph.userCount()
+    //   scores[i] >= 0, and the scores sum to 1 (up to rounding) if nonempty
+    //   iterations >= 0
+    // Safety from rep exposure:
+    //   all fields are private and final; graph is immutable, scores is never
+    //   handed out, and results are fresh lists of immutable Strings.
+
+    private void checkRep() {
+        assert scores.length == graph.userCount();
+        double sum = 0;
+        for (double score : scores) {
+            assert score >= 0;
+            sum += score;
+        }
+        assert scores.length == 0 || Math.abs(sum - 1) < 1e-6;
+        assert iterations >= 0;
+    }
+
+    private PageRank(CompactFollowsGraph graph, double[] scores, int iterations, boolean converged) {
+        this.graph = graph;
+        this.scores = scores;
+        this.iterations = iterations;
+        this.converged = converged;
+        checkRep();
+    }
+
+    /**
+     * Rank the users of a social network with the default parameters.
+     *
+     * @param followsGraph a social network (as defined by SocialNetwork), not
+     *                     modified by this method
+     * @return a ranking of all distinct users in followsGraph, in lower case,
+     * whether they appear as keys or as followed users
+     */
+    public static PageRank of(Map<String, Set<String>> followsGraph) {
+        return of(CompactFollowsGraph.fromMap(followsGraph));
+    }
+
+    /**
+     * Rank the users of a social network with the default parameters.
+     *
+     * @param graph a social network
+     * @return a ranking of all users in graph
+     */
+    public static PageRank of(CompactFollowsGraph graph) {
+        return of(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Rank the users of a social network.
+     *
+     * @param graph         a social network
+     * @param damping       probability of following an edge, 0 <= damping < 1
+     * @param tolerance     stop once the L1 change between iterations is below
+     *                      this, tolerance > 0
+     * @param maxIterations stop after this many iterations, maxIterations >= 0
+     * @return a ranking of all users in graph
+     */
+    public static PageRank of(CompactFollowsGraph graph, double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1): " + damping);
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("maxIterations must be nonnegative: " + maxIterations);
+        }
+        final int n = graph.userCount();
+        if (n == 0) {
+            return new PageRank(graph, new double[0], 0, true);
+        }
+        final int[] outOffsets = graph.followsOffsets();
+        final int[] inOffsets = graph.followersOffsets();
+        final int[] inTargets = graph.followersTargets();
+        final int chunks = (n + CHUNK - 1) / CHUNK;
+
+        double[] scores = new double[n];
+        Arrays.fill(scores, 1.0 / n);
+        double[] next = new double[n];
+        // share[u] = damping * scores[u] / outDegree(u), the score u passes along each edge
+        final double[] share = new double[n];
+        final double[] chunkSums = new double[chunks];
+
+        int iteration = 0;
+        boolean converged = false;
+        while (iteration < maxIterations && !converged) {
+            final double[] current = scores;
+            final double[] updated = next;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                double dangling = 0;
+                for (int u = c * CHUNK, end = Math.min(u + CHUNK, n); u < end; u++) {
+                    int outDegree = outOffsets[u + 1] - outOffsets[u];
+                    if (outDegree == 0) {
+                        dangling += current[u];
+                        share[u] = 0;
+                    } else {
+                        share[u] = damping * current[u] / outDegree;
+                    }
+                }
+                chunkSums[c] = dangling;
+            });
+            // summed in chunk order, so the result doesn't depend on scheduling
+            double dangling = 0;
+            for (double sum : chunkSums) {
+                dangling += sum;
+            }
+            final double base = (1 - damping + damping * dangling) / n;
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                double delta = 0;
+                for (int v = c * CHUNK, end = Math.min(v + CHUNK, n); v < end; v++) {
+                    double score = base;
+                    for (int k = inOffsets[v]; k < inOffsets[v + 1]; k++) {
+                        score += share[inTargets[k]];
+                    }
+                    updated[v] = score;
+                    delta += Math.abs(score - current[v]);
+                }
+                chunkSums[c] = delta;
+            });
+            double delta = 0;
+            for (double sum : chunkSums) {
+                delta += sum;
+            }
+            scores = updated;
+            next = current;
+            iteration++;
+            converged = delta < tolerance;
+        }
+        return new PageRank(graph, scores, iteration, converged);
+    }
+
+    /**
+     * @return number of distinct users in the ranking
+     */
+    public int size() {
+        return scores.length;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return influence score of username, ignoring case; 0 if unknown.
+     * The scores of all users sum to 1.
+     */
+    public double score(String username) {
+        int id = graph.id(username);
+        return id < 0 ? 0 : scores[id];
+    }
+
+    /**
+     * @return number of power iterations that were run
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return true iff the scores converged within the tolerance before the
+     * iteration cap was reached
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * @return a list of all distinct users, in lower case, in descending order
+     * of influence score; a drop-in replacement for SocialNetwork.influencers()
+     */
+    public List<String> ranked() {
+        return topK(scores.length);
+    }
+
+    /**
+     * @param k how many users to return, k >= 0
+     * @return the min(k, size()) most influential users, in lower case, in
+     * descending order of influence score; the same as the first k of ranked()
+     */
+    public List<String> topK(int k) {
+        List<String> top = new ArrayList<>();
+        for (int id : TopIds.top(scores.length, k, this::ranksBefore)) {
+            top.add(graph.username(id));
+        }
+        return top;
+    }
+
+    /* @return true iff user a comes before user b in the ranking */
+    private boolean ranksBefore(int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+}
@@ -38,14 +38,9 @@ public class SocialNetwork {
      * either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        Map<String, Set<String>> graph = new HashMap<>();
-        for (Tweet tweet : tweets) {
-            if (!graph.containsKey(tweet.getAuthor())) {
-                graph.put(tweet.getAuthor(), new HashSet<>());
-            }
-            graph.get(tweet.getAuthor()).addAll(Extract.getMentionedUsers(Collections.singletonList(tweet)));
-        }
-        return graph;
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        builder.ingestAll(tweets);
+        return builder.snapshot();
     }
 
     /**
@@ -57,39 +52,7 @@ public class SocialNetwork {
      * descending order of follower count.
      */
     public static List<String> influencers(Map<String, Set<String>> followsGraph) {
-        List<String> ans = new ArrayList<>();
-        Map<String, Integer> influencers = new HashMap<>();
-
-        // add followed users to map and count their followers
-        for (Set<String> follows : followsGraph.values()) {
-            for (String followedUser : follows) {
-                followedUser = followedUser.toLowerCase();
-                if (influencers.containsKey(followedUser)) {
-                    influencers.put(followedUser, influencers.get(followedUser) + 1);
-                } else {
-                    influencers.put(followedUser, 0);
-                }
-            }
-        }
-        // add remaining users
-        for (String username : followsGraph.keySet()) {
-            username = username.toLowerCase();
-            if (!influencers.containsKey(username)) {
-                influencers.put(username.toLowerCase(), 0);
-            }
-        }
-        // sort users by followers
-        while (!influencers.isEmpty()) {
-            int topFollowers = Collections.max(influencers.values());
-            for (String username : influencers.keySet()) {
-                if (influencers.get(username).equals(topFollowers)) {
-                    ans.add(username);
-                    influencers.remove(username);
-                    break;
-                }
-            }
-        }
-        return ans;
+        return InfluencerRanking.of(followsGraph).ranked();
     }
 
 }
@@ -0,0 +1,249 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * An immutable, deterministic generator of realistic synthetic tweets, for
+ * testing and benchmarking at sizes the sample server can't provide.
+ * <p>
+ * Authors, mentioned users, hashtags and words are all drawn from Zipf
+ * distributions, as in real feeds: a few users write and are mentioned most
+ * of the time, and word frequencies follow the usual power law. Timestamps
+ * are spread uniformly over a configurable timespan, in no particular order.
+ * Some mentions use a different letter case from the author's own spelling,
+ * as real mentions do.
+ * <p>
+ * The same seed and parameters always produce the same tweets, so a
+ * benchmark or test can regenerate its input instead of storing it.
+ */
+public class SyntheticTweets {
+
+    /** Zipf exponent for how often users write; s = 1 is the classic power law. */
+    public static final double AUTHOR_SKEW = 1.0;
+
+    /** Zipf exponent for how often users are mentioned; steeper than authorship. */
+    public static final double MENTION_SKEW = 1.2;
+
+    /** Zipf exponent for word frequencies. */
+    public static final double WORD_SKEW = 1.0;
+
+    private static final String[] COMMON_WORDS = {
+        "the", "to", "a", "i", "and", "is", "in", "it", "you", "of", "for", "on", "my",
+        "that", "me", "this", "so", "be", "at", "with", "just", "have", "are", "not",
+        "but", "all", "we", "your", "was", "like", "get", "do", "can", "out", "up",
+        "what", "now", "no", "love", "new", "go", "day", "today", "good", "one", "know",
+        "time", "they", "how", "if", "when", "more", "about", "see", "lol", "great",
+        "talk", "rivest", "going", "people", "think", "back", "want", "really", "via",
+    };
+    private static final String[] SYLLABLES = {
+        "ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "ze", "ba", "do", "fe", "gi",
+        "ho", "ju", "pa", "qi", "re", "su", "to", "wa", "xe", "yo", "bri", "tan", "del",
+    };
+    private static final int VOCABULARY = 20000;
+    private static final int HASHTAGS = 2000;
+    private static final long FIRST_ID = 1000000000L;
+    private static final int MAX_TEXT_LENGTH = 140; // Tweet's limit
+
+    private final long seed;
+    private final int users;
+    private final Instant start;
+    private final Duration spread;
+    private final double mentionsPerTweet;
+    private final double hashtagsPerTweet;
+
+    // Abstraction function:
+    //   AF(seed, users, start, spread, mentionsPerTweet, hashtagsPerTweet) =
+    //     the infinite deterministic sequence of tweets by `users` distinct
+    //     users, sent during [start, start + spread), with on average
+    //     mentionsPerTweet mentions and hashtagsPerTweet hashtags each,
+    //     determined by seed
+    // Rep invariant:
+    //   users >= 1, spread is positive
+    //   mentionsPerTweet >= 0, hashtagsPerTweet >= 0
+    // Safety from rep exposure:
+    //   all fields are private, final and immutable.
+
+    private void checkRep() {
+        assert users >= 1 && !spread.isNegative() && !spread.isZero();
+        assert mentionsPerTweet >= 0 && hashtagsPerTweet >= 0;
+    }
+
+    /**
+     * Make a generator.
+     *
+     * @param seed             random seed; equal seeds and parameters give equal tweets
+     * @param users            number of distinct users, users >= 1
+     * @param start            earliest timestamp
+     * @param spread           timestamps fall in [start, start + spread), positive
+     * @param mentionsPerTweet mean number of @-mentions per tweet, >= 0
+     * @param hashtagsPerTweet mean number of hashtags per tweet, >= 0
+     */
+    public SyntheticTweets(long seed, int users, Instant start, Duration spread,
+                           double mentionsPerTweet, double hashtagsPerTweet) {
+        if (users < 1 || spread.isNegative() || spread.isZero()
+            || !(mentionsPerTweet >= 0) || !(hashtagsPerTweet >= 0)) {
+            throw new IllegalArgumentException("invalid synthetic tweet parameters");
+        }
+        this.seed = seed;
+        this.users = users;
+        this.start = start;
+        this.spread = spread;
+        this.mentionsPerTweet = mentionsPerTweet;
+        this.hashtagsPerTweet = hashtagsPerTweet;
+        checkRep();
+    }
+
+    /**
+     * Make a generator with typical parameters: users = max(10, count / 20),
+     * timestamps over one day from 2016-02-17T00:00:00Z, 0.8 mentions and 0.2
+     * hashtags per tweet.
+     *
+     * @param seed  random seed
+     * @param count number of tweets the caller means to generate, >= 0
+     * @return a generator
+     */
+    public static SyntheticTweets typical(long seed, int count) {
+        return new SyntheticTweets(seed, Math.max(10, count / 20), Instant.parse("2016-02-17T00:00:00Z"),
+            Duration.ofDays(1), 0.8, 0.2);
+    }
+
+    /**
+     * @param rank user rank, 0 <= rank < users; rank 0 is the most active
+     * @return that user's username, a valid Twitter username
+     */
+    public String username(int rank) {
+        return SYLLABLES[rank % SYLLABLES.length] + SYLLABLES[(rank / SYLLABLES.length) % SYLLABLES.length]
+            + "_" + Integer.toString(rank, 36);
+    }
+
+    /**
+     * Generate tweets.
+     *
+     * @param count number of tweets, count >= 0
+     * @return count tweets with distinct ids, in increasing order of id, each
+     * with at most 140 characters of text; the first `count` tweets of this
+     * generator's sequence
+     */
+    public List<Tweet> generate(int count) {
+        Random random = new Random(seed);
+        Zipf authors = new Zipf(users, AUTHOR_SKEW);
+        Zipf mentioned = new Zipf(users, MENTION_SKEW);
+        Zipf words = new Zipf(VOCABULARY, WORD_SKEW);
+        Zipf hashtags = new Zipf(HASHTAGS, WORD_SKEW);
+        String[] usernames = new String[users];
+        String[] vocabulary = new String[VOCABULARY];
+        final long spreadNanos = spread.toNanos();
+
+        List<Tweet> tweets = new ArrayList<>(count);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String author = name(usernames, authors.sample(random));
+            int wordCount = 4 + random.nextInt(12);
+            int mentionCount = poisson(random, mentionsPerTweet);
+            int hashtagCount = poisson(random, hashtagsPerTweet);
+            final int tokens = wordCount + mentionCount + hashtagCount;
+            text.setLength(0);
+            boolean full = false;
+            for (int t = 0; t < tokens; t++) {
+                // interleave mentions and hashtags among the words
+                int kind = random.nextInt(wordCount + mentionCount + hashtagCount);
+                final String token;
+                if (kind < mentionCount) {
+                    String user = name(usernames, mentioned.sample(random));
+                    token = '@' + (random.nextInt(10) == 0 ? user.toUpperCase(Locale.ROOT) : user);
+                    mentionCount--;
+                } else if (kind < mentionCount + hashtagCount) {
+                    token = '#' + word(vocabulary, hashtags.sample(random) + COMMON_WORDS.length);
+                    hashtagCount--;
+                } else {
+                    token = word(vocabulary, words.sample(random));
+                    wordCount--;
+                }
+                // the text ends at the first token that doesn't fit in a tweet; the
+                // rest are still drawn, so the tweets that follow don't depend on the limit
+                int separator = text.length() > 0 ? 1 : 0;
+                if (full || text.length() + separator + token.length() > MAX_TEXT_LENGTH) {
+                    full = true;
+                } else {
+                    if (separator > 0) {
+                        text.append(' ');
+                    }
+                    text.append(token);
+                }
+            }
+            long offset = (long) (random.nextDouble() * spreadNanos);
+            tweets.add(new Tweet(FIRST_ID + i, author, text.toString(), start.plusNanos(offset)));
+        }
+        return tweets;
+    }
+
+    /* @return username(rank), cached so each user's name is one shared String */
+    private String name(String[] usernames, int rank) {
+        if (usernames[rank] == null) {
+            usernames[rank] = username(rank);
+        }
+        return usernames[rank];
+    }
+
+    /* @return the word of a given frequency rank: common English first, then made-up words */
+    private static String word(String[] vocabulary, int rank) {
+        if (rank < COMMON_WORDS.length) {
+            return COMMON_WORDS[rank];
+        }
+        if (vocabulary[rank] == null) {
+            StringBuilder word = new StringBuilder();
+            for (int r = rank; r > 0; r /= SYLLABLES.length) {
+                word.append(SYLLABLES[r % SYLLABLES.length]);
+            }
+            vocabulary[rank] = word.toString();
+        }
+        return vocabulary[rank];
+    }
+
+    /* @return a Poisson-distributed count with the given mean (Knuth's method; means here are small) */
+    private static int poisson(Random random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Samples ranks 0 .. n-1 with probability proportional to 1 / (rank+1)^s,
+     * by binary search over the cumulative distribution.
+     */
+    private static class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double s) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, s);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mutable inverted index from words to the tweets that contain them, for
+ * repeated Filter.containing() queries over the same batch.
+ * <p>
+ * Each tweet is split into words once, when it is added, using the same
+ * rules as Filter.containing(): words are bounded by space characters and
+ * compared ignoring case. For each folded word the index keeps a compressed
+ * bitmap of the ordinals (input positions) of the tweets containing it, cut
+ * into containers of 2^16 ordinals as in Roaring bitmaps: a container holds
+ * the low 16 bits of its ordinals as a sorted array while it has at most
+ * ARRAY_MAX of them, about 2 bytes each, and as a plain 2^16-bit bitmap
+ * (8KB) once it is denser. A query ORs the bitmaps of its words container by
+ * container: containers that are all arrays are merged as arrays, and any
+ * others are ORed word by word into one 8KB scratch bitmap, so a query
+ * needs memory for its result, not for the whole batch.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TermIndex {
+
+    /* Largest number of ordinals an array container holds before it becomes a bitmap. */
+    private static final int ARRAY_MAX = 4096;
+
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Abstraction function:
+    //   AF(tweets, postings) = the list `tweets`, indexed so that the tweets
+    //     containing folded word w are at the ordinals postings.get(w) decodes to
+    // Rep invariant:
+    //   every key of postings is nonempty, contains no whitespace and is folded
+    //   to lower case
+    //   every posting list is nonempty, with ordinals < tweets.size()
+    // Safety from rep exposure:
+    //   all fields are private; queries return fresh lists and arrays.
+
+    private void checkRep() {
+        for (Postings list : postings.values()) {
+            assert list.count > 0 && list.last < tweets.size();
+        }
+    }
+
+    /**
+     * Make an empty index.
+     */
+    public TermIndex() {
+        checkRep();
+    }
+
+    /**
+     * Make an index over a list of tweets.
+     *
+     * @param tweets tweets to index, not modified by this method
+     * @return an index whose ordinal i is tweets.get(i)
+     */
+    public static TermIndex of(List<Tweet> tweets) {
+        TermIndex index = new TermIndex();
+        for (Tweet tweet : tweets) {
+            index.add(tweet);
+        }
+        index.checkRep();
+        return index;
+    }
+
+    /**
+     * Append a tweet to the index.
+     *
+     * @param tweet tweet to append
+     * @return the ordinal of the appended tweet
+     */
+    public int add(Tweet tweet) {
+        final int ordinal = tweets.size();
+        tweets.add(tweet);
+        Words.split(tweet.getText(), (text, start, end) -> {
+            Postings list = postings.computeIfAbsent(Words.fold(text, start, end), word -> new Postings());
+            list.add(ordinal);
+        });
+        return ordinal;
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return number of distinct (case-insensitive) words in the index
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     *
+     * @param words words to search for. A word is a nonempty sequence of nonspace characters.
+     * @return all and only the indexed tweets whose text includes at least one
+     * of the words, ignoring case, in the order they were added
+     */
+    public List<Tweet> containing(List<String> words) {
+        int[] ordinals = ordinalsContaining(words);
+        List<Tweet> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(tweets.get(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Find the ordinals of tweets that contain certain words.
+     *
+     * @param words words to search for. A word is a nonempty sequence of nonspace characters.
+     * @return the ordinals of all and only the indexed tweets whose text
+     * includes at least one of the words, ignoring case, in increasing order
+     */
+    public int[] ordinalsContaining(List<String> words) {
+        List<Postings> lists = new ArrayList<>(words.size());
+        for (String word : words) {
+            Postings list = postings.get(Words.fold(word));
+            if (list != null && !lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        IntList result = new IntList();
+        if (lists.size() == 1) {
+            Postings list = lists.get(0);
+            for (int c = 0; c < list.size; c++) {
+                list.containers[c].appendTo(list.keys[c] << 16, result);
+            }
+            return result.toArray();
+        }
+
+        // OR the lists one container key at a time, in increasing key order
+        final int[] next = new int[lists.size()];
+        final long[] bits = new long[BitmapContainer.WORDS];
+        int[] merged = new int[ARRAY_MAX];
+        while (true) {
+            int key = Integer.MAX_VALUE;
+            for (int i = 0; i < next.length; i++) {
+                Postings list = lists.get(i);
+                if (next[i] < list.size) {
+                    key = Math.min(key, list.keys[next[i]]);
+                }
+            }
+            if (key == Integer.MAX_VALUE) {
+                break;
+            }
+            int total = 0;
+            boolean allArrays = true;
+            for (int i = 0; i < next.length; i++) {
+                Postings list = lists.get(i);
+                if (next[i] < list.size && list.keys[next[i]] == key) {
+                    Container container = list.containers[next[i]];
+                    total += container.cardinality();
+                    allArrays &= container instanceof ArrayContainer;
+                }
+            }
+            final int high = key << 16;
+            if (allArrays && total <= ARRAY_MAX) {
+                int n = 0;
+                for (int i = 0; i < next.length; i++) {
+                    Postings list = lists.get(i);
+                    if (next[i] < list.size && list.keys[next[i]] == key) {
+                        ArrayContainer array = (ArrayContainer) list.containers[next[i]++];
+                        for (int j = 0; j < array.size; j++) {
+                            merged[n++] = array.values[j];
+                        }
+                    }
+                }
+                Arrays.sort(merged, 0, n);
+                for (int j = 0; j < n; j++) {
+                    if (j == 0 || merged[j] != merged[j - 1]) {
+                        result.add(high | merged[j]);
+                    }
+                }
+            } else {
+                for (int i = 0; i < next.length; i++) {
+                    Postings list = lists.get(i);
+                    if (next[i] < list.size && list.keys[next[i]] == key) {
+                        list.containers[next[i]++].orInto(bits);
+                    }
+                }
+                for (int w = 0; w < bits.length; w++) {
+                    for (long word = bits[w]; word != 0; word &= word - 1) {
+                        result.add(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    }
+                    bits[w] = 0;
+                }
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * A posting list: a bitmap of ordinals, cut into containers of the
+     * ordinals that share their high 16 bits (the container's key).
+     */
+    private static class Postings {
+
+        private char[] keys = new char[1];
+        private Container[] containers = new Container[1];
+        private int size = 0;
+        private int last = -1;
+        private int count = 0;
+
+        /* Append an ordinal; repeats of the last ordinal are ignored. */
+        void add(int ordinal) {
+            if (ordinal == last) {
+                return;
+            }
+            assert ordinal > last;
+            final char key = (char) (ordinal >>> 16);
+            if (size == 0 || keys[size - 1] != key) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    containers = Arrays.copyOf(containers, size * 2);
+                }
+                keys[size] = key;
+                containers[size++] = new ArrayContainer();
+            }
+            containers[size - 1] = containers[size - 1].add((char) ordinal);
+            last = ordinal;
+            count++;
+        }
+    }
+
+    /**
+     * The low 16 bits of the ordinals in one container of a posting list.
+     */
+    private abstract static class Container {
+
+        /* Add a value greater than every value present. @return the container now holding it */
+        abstract Container add(char low);
+
+        abstract int cardinality();
+
+        /* Append high | value for each value, in increasing order. */
+        abstract void appendTo(int high, IntList out);
+
+        /* Set the bit of each value in a bitmap of BitmapContainer.WORDS words. */
+        abstract void orInto(long[] bits);
+    }
+
+    /** A container of at most ARRAY_MAX values, as a sorted array. */
+    private static final class ArrayContainer extends Container {
+
+        private char[] values = new char[1];
+        private int size = 0;
+
+        @Override
+        Container add(char low) {
+            if (size == ARRAY_MAX) {
+                BitmapContainer bitmap = new BitmapContainer();
+                for (int i = 0; i < size; i++) {
+                    bitmap.add(values[i]);
+                }
+                return bitmap.add(low);
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX));
+            }
+            values[size++] = low;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        void appendTo(int high, IntList out) {
+            for (int i = 0; i < size; i++) {
+                out.add(high | values[i]);
+            }
+        }
+
+        @Override
+        void orInto(long[] bits) {
+            for (int i = 0; i < size; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+    }
+
+    /** A container of more than ARRAY_MAX values, as a bitmap of all 2^16. */
+    private static final class BitmapContainer extends Container {
+
+        static final int WORDS = (1 << 16) / Long.SIZE;
+
+        private final long[] words = new long[WORDS];
+        private int cardinality = 0;
+
+        @Override
+        Container add(char low) {
+            words[low >>> 6] |= 1L << low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void appendTo(int high, IntList out) {
+            for (int w = 0; w < WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    out.add(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        @Override
+        void orInto(long[] bits) {
+            for (int w = 0; w < WORDS; w++) {
+                bits[w] |= words[w];
+            }
+        }
+    }
+}
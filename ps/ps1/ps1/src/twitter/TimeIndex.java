@@ -0,0 +1,189 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An immutable index of tweets by timestamp, for fast timespan queries.
+ * <p>
+ * Timestamps are kept as nanoseconds since the epoch in a primitive array
+ * sorted ascending, next to the ordinal (input position) of each tweet. A
+ * query finds its window with two binary searches, marks the ordinals in the
+ * window in a bitmap, and reads the bitmap back in ordinal order, so results
+ * come out in the input order without sorting.
+ */
+public class TimeIndex {
+
+    private final List<Tweet> tweets;
+    private final long[] sortedNanos;
+    private final int[] sortedOrdinals;
+
+    // Abstraction function:
+    //   AF(tweets, sortedNanos, sortedOrdinals) = the list `tweets`, where
+    //     sortedNanos[k] is the timestamp of tweets.get(sortedOrdinals[k])
+    // Rep invariant:
+    //   sortedNanos.length = sortedOrdinals.length = tweets.size()
+    //   sortedNanos is nondecreasing
+    //   sortedOrdinals is a permutation of 0 .. tweets.size()-1
+    // Safety from rep exposure:
+    //   all fields are private and final; tweets is a private copy, and
+    //   queries return fresh lists and arrays.
+
+    private void checkRep() {
+        assert sortedNanos.length == tweets.size();
+        assert sortedOrdinals.length == tweets.size();
+        for (int k = 1; k < sortedNanos.length; k++) {
+            assert sortedNanos[k - 1] <= sortedNanos[k];
+        }
+    }
+
+    /**
+     * Make an index over a list of tweets.
+     *
+     * @param tweets tweets to index, not modified by this method. Every
+     *               timestamp must lie between the years 1677 and 2262.
+     */
+    public TimeIndex(List<Tweet> tweets) {
+        this.tweets = new ArrayList<>(tweets);
+        final int n = this.tweets.size();
+        long[] nanos = new long[n];
+        int[] ordinals = new int[n];
+        boolean sorted = true;
+        for (int i = 0; i < n; i++) {
+            nanos[i] = EpochNanos.of(this.tweets.get(i).getTimestamp());
+            ordinals[i] = i;
+            sorted &= i == 0 || nanos[i - 1] <= nanos[i];
+        }
+        // feeds usually arrive in time order, so only sort when we have to
+        if (!sorted) {
+            radixSort(nanos, ordinals);
+        }
+        this.sortedNanos = nanos;
+        this.sortedOrdinals = ordinals;
+        checkRep();
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan.
+     *
+     * @param timespan timespan, including its endpoints
+     * @return all and only the indexed tweets sent during timespan, in the same
+     * order as in the input list
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        int[] ordinals = ordinalsInTimespan(timespan);
+        List<Tweet> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(tweets.get(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Find the ordinals of tweets that were sent during a particular timespan.
+     *
+     * @param timespan timespan, including its endpoints
+     * @return the input positions of all and only the indexed tweets sent
+     * during timespan, in increasing order
+     */
+    public int[] ordinalsInTimespan(Timespan timespan) {
+        int from = lowerBound(sortedNanos, EpochNanos.saturated(timespan.getStart()));
+        int to = upperBound(sortedNanos, EpochNanos.saturated(timespan.getEnd()));
+        if (from >= to) {
+            return new int[0];
+        }
+        // a narrow window is cheaper to sort than to scan a bitmap of every ordinal
+        if (to - from < tweets.size() >>> 6) {
+            int[] result = Arrays.copyOfRange(sortedOrdinals, from, to);
+            Arrays.sort(result);
+            return result;
+        }
+        BitSet hits = new BitSet(tweets.size());
+        for (int k = from; k < to; k++) {
+            hits.set(sortedOrdinals[k]);
+        }
+        int[] result = new int[to - from];
+        int j = 0;
+        for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+            result[j++] = i;
+        }
+        return result;
+    }
+
+    /* @return the first index k with keys[k] >= key, or keys.length if none */
+    static int lowerBound(long[] keys, long key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /* @return the first index k with keys[k] > key, or keys.length if none */
+    static int upperBound(long[] keys, long key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * Sort keys ascending and permute values the same way, with a stable
+     * least-significant-digit radix sort over 16-bit digits.
+     */
+    private static void radixSort(long[] keys, int[] values) {
+        final int n = keys.length;
+        long[] keyBuffer = new long[n];
+        int[] valueBuffer = new int[n];
+        int[] counts = new int[1 << 16];
+        for (int shift = 0; shift < Long.SIZE; shift += 16) {
+            Arrays.fill(counts, 0);
+            for (long key : keys) {
+                counts[digit(key, shift)]++;
+            }
+            int total = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int count = counts[d];
+                counts[d] = total;
+                total += count;
+            }
+            for (int i = 0; i < n; i++) {
+                int position = counts[digit(keys[i], shift)]++;
+                keyBuffer[position] = keys[i];
+                valueBuffer[position] = values[i];
+            }
+            System.arraycopy(keyBuffer, 0, keys, 0, n);
+            System.arraycopy(valueBuffer, 0, values, 0, n);
+        }
+    }
+
+    /* @return the 16-bit digit of key at shift, with the sign bit flipped so negatives sort first */
+    private static int digit(long key, int shift) {
+        return (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xFFFF);
+    }
+}
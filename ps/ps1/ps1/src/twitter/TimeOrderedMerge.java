@@ -0,0 +1,169 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy merge of several feeds of tweets, each already sorted by timestamp,
+ * into one Iterator over all of their tweets in timestamp order.
+ * <p>
+ * Only the next tweet of each feed is held at a time, so the merged feed is
+ * never materialized, and each tweet costs O(log k) for k feeds. The feeds'
+ * cursors are kept in a binary min-heap of feed indexes, keyed by the
+ * timestamp of each feed's next tweet in epoch nanoseconds, in primitive
+ * arrays. Tweets with equal timestamps come out in feed order, and in order
+ * within a feed, so the merge is stable.
+ * <p>
+ * Not thread-safe.
+ */
+public class TimeOrderedMerge implements Iterator<Tweet> {
+
+    private final List<Iterator<Tweet>> feeds;
+    private final Tweet[] heads;
+    private final long[] keys;
+    private final int[] heap;
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(feeds, heads, keys, heap, size) = the sequence of tweets not yet
+    //     returned: the merge, by timestamp and then feed index, of the
+    //     sequences heads[f] followed by the rest of feeds.get(f), for each
+    //     feed f in heap[0..size)
+    // Rep invariant:
+    //   heads.length = keys.length = heap.length = feeds.size(); 0 <= size <= feeds.size()
+    //   heap[0..size) are distinct feed indexes, each with heads[f] != null
+    //     and keys[f] = EpochNanos.saturated(heads[f].getTimestamp())
+    //   heap[0..size) is a min-heap by (keys[f], f)
+    // Safety from rep exposure:
+    //   all fields are private; feeds is a private copy of the list, and
+    //   only immutable Tweets are returned.
+
+    private void checkRep() {
+        assert size >= 0 && size <= heap.length;
+        for (int i = 1; i < size; i++) {
+            assert !less(heap[i], heap[(i - 1) >>> 1]);
+        }
+    }
+
+    /**
+     * Merge feeds of tweets.
+     *
+     * @param feeds iterators over tweets, each in nondecreasing timestamp
+     *              order; the merge consumes them as it goes
+     */
+    public TimeOrderedMerge(List<? extends Iterator<Tweet>> feeds) {
+        this.feeds = new ArrayList<>(feeds);
+        final int k = this.feeds.size();
+        this.heads = new Tweet[k];
+        this.keys = new long[k];
+        this.heap = new int[k];
+        for (int f = 0; f < k; f++) {
+            if (advance(f)) {
+                heap[size] = f;
+                siftUp(size++);
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * Merge lists of tweets.
+     *
+     * @param lists lists of tweets, each in nondecreasing timestamp order,
+     *              not modified by this method
+     * @return an iterator over all of their tweets in timestamp order
+     */
+    public static TimeOrderedMerge of(List<List<Tweet>> lists) {
+        List<Iterator<Tweet>> feeds = new ArrayList<>(lists.size());
+        for (List<Tweet> list : lists) {
+            feeds.add(list.iterator());
+        }
+        return new TimeOrderedMerge(feeds);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size > 0;
+    }
+
+    /**
+     * @return the earliest tweet not yet returned
+     * @throws NoSuchElementException if every feed is exhausted
+     * @throws IllegalStateException  if a feed turns out not to be in
+     *                                timestamp order
+     */
+    @Override
+    public Tweet next() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final int f = heap[0];
+        final Tweet tweet = heads[f];
+        final long key = keys[f];
+        if (advance(f)) {
+            if (keys[f] < key) {
+                throw new IllegalStateException("feed " + f + " is not in timestamp order at tweet " + heads[f].getId());
+            }
+            siftDown(0); // the feed's key only grew
+        } else {
+            heap[0] = heap[--size];
+            siftDown(0);
+        }
+        checkRep();
+        return tweet;
+    }
+
+    /* Load the next tweet of feed f. @return false if the feed is exhausted */
+    private boolean advance(int f) {
+        Iterator<Tweet> feed = feeds.get(f);
+        if (!feed.hasNext()) {
+            heads[f] = null;
+            return false;
+        }
+        heads[f] = feed.next();
+        keys[f] = EpochNanos.saturated(heads[f].getTimestamp());
+        return true;
+    }
+
+    /* @return true iff feed f's next tweet comes before feed g's */
+    private boolean less(int f, int g) {
+        return keys[f] < keys[g] || (keys[f] == keys[g] && f < g);
+    }
+
+    private void siftUp(int index) {
+        final int f = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(f, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = f;
+    }
+
+    private void siftDown(int index) {
+        final int f = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], f)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = f;
+    }
+}
@@ -0,0 +1,178 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A mutable min/max accumulator over tweet timestamps, used to compute the
+ * minimum-length Timespan that covers a collection of tweets in one pass.
+ * <p>
+ * Timestamps are compared as primitive (epoch second, nano) pairs, so no
+ * Instant or Timespan is created until the result is asked for. Aggregators
+ * can be combined, which makes them usable as a parallel reduction; the static
+ * factories run that reduction on the common fork-join pool when the input is
+ * large enough to pay for it.
+ */
+public class TimespanAggregator {
+
+    /* Below this many tweets, a sequential pass beats the fork-join split. */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private long count = 0;
+    private long minSeconds = Long.MAX_VALUE;
+    private int minNanos = Integer.MAX_VALUE;
+    private long maxSeconds = Long.MIN_VALUE;
+    private int maxNanos = Integer.MIN_VALUE;
+
+    // Abstraction function:
+    //   AF(count, min*, max*) = the smallest interval [min, max] containing the
+    //                           timestamps of the `count` tweets accepted so far,
+    //                           or no interval if count = 0
+    // Rep invariant:
+    //   count >= 0
+    //   count > 0 => (minSeconds, minNanos) <= (maxSeconds, maxNanos)
+    //   count > 0 => 0 <= minNanos, maxNanos < 1_000_000_000
+    // Safety from rep exposure:
+    //   all fields are private primitives.
+
+    private void checkRep() {
+        assert count >= 0;
+        if (count > 0) {
+            assert compare(minSeconds, minNanos, maxSeconds, maxNanos) <= 0;
+        }
+    }
+
+    /**
+     * Make an empty aggregator.
+     */
+    public TimespanAggregator() {
+        checkRep();
+    }
+
+    /**
+     * Add one tweet's timestamp to this aggregate.
+     *
+     * @param tweet tweet to add
+     */
+    public void accept(Tweet tweet) {
+        Instant timestamp = tweet.getTimestamp();
+        long seconds = timestamp.getEpochSecond();
+        int nanos = timestamp.getNano();
+        if (compare(seconds, nanos, minSeconds, minNanos) < 0) {
+            minSeconds = seconds;
+            minNanos = nanos;
+        }
+        if (compare(seconds, nanos, maxSeconds, maxNanos) > 0) {
+            maxSeconds = seconds;
+            maxNanos = nanos;
+        }
+        count++;
+    }
+
+    /**
+     * Merge another aggregate into this one. The other aggregator is not modified.
+     *
+     * @param that aggregate to merge
+     */
+    public void combine(TimespanAggregator that) {
+        if (that.count == 0) {
+            return;
+        }
+        if (compare(that.minSeconds, that.minNanos, minSeconds, minNanos) < 0) {
+            minSeconds = that.minSeconds;
+            minNanos = that.minNanos;
+        }
+        if (compare(that.maxSeconds, that.maxNanos, maxSeconds, maxNanos) > 0) {
+            maxSeconds = that.maxSeconds;
+            maxNanos = that.maxNanos;
+        }
+        count += that.count;
+        checkRep();
+    }
+
+    /**
+     * @return number of tweets accepted so far
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the minimum-length time interval that contains the timestamp of
+     * every tweet accepted so far, or null if no tweet has been accepted.
+     * A single tweet gives an interval whose start equals its end.
+     */
+    public Timespan toTimespan() {
+        if (count == 0) {
+            return null;
+        }
+        return new Timespan(Instant.ofEpochSecond(minSeconds, minNanos),
+            Instant.ofEpochSecond(maxSeconds, maxNanos));
+    }
+
+    /**
+     * Get the covering time period of a list of tweets.
+     *
+     * @param tweets list of tweets, not modified by this method.
+     * @return the minimum-length interval containing every tweet's timestamp,
+     * or null if the list is empty.
+     */
+    public static Timespan of(List<Tweet> tweets) {
+        if (tweets.size() < PARALLEL_THRESHOLD) {
+            TimespanAggregator aggregator = new TimespanAggregator();
+            if (tweets instanceof RandomAccess) {
+                for (int i = 0; i < tweets.size(); i++) {
+                    aggregator.accept(tweets.get(i));
+                }
+            } else {
+                tweets.forEach(aggregator::accept);
+            }
+            return aggregator.toTimespan();
+        }
+        return reduce(tweets.parallelStream());
+    }
+
+    /**
+     * Get the covering time period of some tweets.
+     *
+     * @param tweets tweets to cover, not modified by this method.
+     * @return the minimum-length interval containing every tweet's timestamp,
+     * or null if there are no tweets.
+     */
+    public static Timespan of(Iterable<Tweet> tweets) {
+        if (tweets instanceof List) {
+            return of((List<Tweet>) tweets);
+        }
+        return reduce(StreamSupport.stream(tweets.spliterator(), true));
+    }
+
+    /**
+     * Get the covering time period of a stream of tweets. The stream is
+     * consumed as a parallel reduction.
+     *
+     * @param tweets tweets to cover
+     * @return the minimum-length interval containing every tweet's timestamp,
+     * or null if the stream is empty.
+     */
+    public static Timespan of(Stream<Tweet> tweets) {
+        return reduce(tweets.parallel());
+    }
+
+    /* Reduce a stream of tweets into one aggregate. */
+    private static Timespan reduce(Stream<Tweet> tweets) {
+        return tweets.collect(TimespanAggregator::new, TimespanAggregator::accept, TimespanAggregator::combine)
+            .toTimespan();
+    }
+
+    /* Compare two (second, nano) pairs as instants. */
+    private static int compare(long seconds1, int nanos1, long seconds2, int nanos2) {
+        int cmp = Long.compare(seconds1, seconds2);
+        return cmp != 0 ? cmp : Integer.compare(nanos1, nanos2);
+    }
+}
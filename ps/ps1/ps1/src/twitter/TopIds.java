@@ -0,0 +1,174 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * Selects the best k of a stream of int ids under a ranking, in a bounded
+ * min-heap of ids whose root is the weakest of the best k offered so far, so
+ * it takes O(k) space and O(log k) per id.
+ * <p>
+ * The ids may stand for users, tweets or anything else the ranking can
+ * compare. To rank a stream of (score, value) pairs, keep them in k + 1
+ * slots of parallel arrays and offer slot numbers: offer() returns the slot
+ * that is no longer kept, which the next pair can reuse.
+ * <p>
+ * Not thread-safe.
+ */
+final class TopIds {
+
+    /**
+     * A strict total order on ids, best first.
+     */
+    interface Ranking {
+
+        /**
+         * @param a an id
+         * @param b an id
+         * @return true iff a comes strictly before b
+         */
+        boolean ranksBefore(int a, int b);
+    }
+
+    private final Ranking ranking;
+    private final int[] heap;
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(ranking, heap, size) = the best heap.length ids offered so far
+    //     under ranking, which are heap[0..size)
+    // Rep invariant:
+    //   0 <= size <= heap.length
+    //   heap[0..size) are distinct, and a heap with the weakest at the root:
+    //     no parent ranks before its children
+    // Safety from rep exposure:
+    //   all fields are private; ids() returns a fresh array.
+
+    private void checkRep() {
+        assert size >= 0 && size <= heap.length;
+    }
+
+    /**
+     * Make an empty selection.
+     *
+     * @param k       how many ids to keep, k >= 0
+     * @param ranking order of the ids, best first
+     */
+    TopIds(int k, Ranking ranking) {
+        this.ranking = ranking;
+        this.heap = new int[k];
+        checkRep();
+    }
+
+    /**
+     * Select the best ids of 0 .. n-1.
+     *
+     * @param n       number of ids, n >= 0
+     * @param k       how many ids wanted, k >= 0
+     * @param ranking order of the ids, best first
+     * @return the min(k, n) best ids of 0 .. n-1, best first
+     * @throws IllegalArgumentException if k < 0
+     */
+    static int[] top(int n, int k, Ranking ranking) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative: " + k);
+        }
+        TopIds top = new TopIds(Math.min(k, n), ranking);
+        for (int id = 0; id < n; id++) {
+            top.offer(id);
+        }
+        return top.ids();
+    }
+
+    /**
+     * Offer an id, keeping it if it is among the best k so far.
+     *
+     * @param id id to offer, not currently kept
+     * @return the id that this offer left out: id itself if it is not kept,
+     * the weakest kept id if id replaced it, or -1 if there was room for id
+     */
+    int offer(int id) {
+        if (size < heap.length) {
+            heap[size] = id;
+            siftUp(size++);
+            return -1;
+        }
+        if (size == 0 || !ranking.ranksBefore(id, heap[0])) {
+            return id;
+        }
+        int weakest = heap[0];
+        heap[0] = id;
+        siftDown();
+        return weakest;
+    }
+
+    /**
+     * @return true iff k ids are kept, so an id must rank before weakest() to be kept
+     */
+    boolean isFull() {
+        return size == heap.length;
+    }
+
+    /**
+     * @return the weakest kept id
+     * @throws IllegalStateException if no id is kept
+     */
+    int weakest() {
+        if (size == 0) {
+            throw new IllegalStateException("no ids kept");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Take the kept ids, leaving this selection empty.
+     *
+     * @return the kept ids, best first
+     */
+    int[] ids() {
+        int[] top = new int[size];
+        while (size > 0) {
+            top[--size] = heap[0];
+            heap[0] = heap[size];
+            siftDown();
+        }
+        checkRep();
+        return top;
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranking.ranksBefore(heap[parent], id)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = id;
+    }
+
+    private void siftDown() {
+        if (size == 0) {
+            return;
+        }
+        int id = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && ranking.ranksBefore(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranking.ranksBefore(id, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = id;
+    }
+}
@@ -0,0 +1,332 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe tracker of trending hashtags over a live feed of tweets.
+ * <p>
+ * Each hashtag has an exponentially decayed count: a tweet using it adds 1,
+ * which then halves every half-life, so a hashtag's score at a time t is the
+ * sum over the tweets that used it of 2^-((t - timestamp) / halfLife). As in
+ * Hashtags, hashtags are case-insensitive and reported in lower case, and a
+ * tweet counts once per hashtag however often it repeats it. Time is the
+ * tweets' own timestamps, so tweets may arrive out of order.
+ * <p>
+ * Counters are spread over a fixed number of stripes by hash, each with its
+ * own lock, so threads adding tweets rarely contend. Counts are kept in
+ * forward-decayed form, scaled up relative to a fixed landmark time instead
+ * of being decayed as time passes, so adding a use is a single addition and
+ * the ranking of all counters never has to be recomputed; a top-N query
+ * scans each stripe once. Hashtags whose score has decayed below a small
+ * threshold are dropped when their stripe fills up, so memory follows the
+ * number of hashtags in recent use.
+ */
+public class TrendingHashtags {
+
+    /** Default half-life of a hashtag use. */
+    public static final Duration DEFAULT_HALF_LIFE = Duration.ofMinutes(30);
+
+    private static final int STRIPE_BITS = 6;
+    /* Forward-decayed weights stay below e^512, far from double overflow. */
+    private static final double MAX_EXPONENT = 512;
+    /* Hashtags that have decayed below this score may be dropped. */
+    private static final double MIN_SCORE = 1e-3;
+    private static final int PRUNE_THRESHOLD = 256;
+
+    private final double lifetime; // mean lifetime of a use in nanoseconds: halfLife / ln 2
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private long landmark = 0; // epoch nanoseconds
+    private final AtomicLong newest = new AtomicLong(Long.MIN_VALUE);
+
+    // Abstraction function:
+    //   AF(lifetime, stripes, landmark, newest) = the decayed count of each
+    //     hashtag h in some stripe's tags, which at time t is
+    //     weight(h) * e^((landmark - t) / lifetime), where weight(h) is h's
+    //     entry in its stripe's weights; every other hashtag's count is
+    //     (negligibly close to) 0. newest is the latest timestamp added.
+    // Rep invariant:
+    //   lifetime > 0
+    //   each hashtag is in the stripe selected by the top STRIPE_BITS bits of
+    //     its UsernameSet.hash
+    //   every weight >= 0
+    // Safety from rep exposure:
+    //   all fields are private; only immutable Strings and numbers are returned.
+    // Thread safety argument:
+    //   a stripe's tags, weights and pruneAt are only accessed while holding
+    //     the stripe's lock.
+    //   landmark is only written while holding every stripe's lock (taken in
+    //     index order, so two rebases can't deadlock), and only read while
+    //     holding at least one, so a weight and the landmark it is relative to
+    //     are always read and updated together.
+    //   newest is an AtomicLong, only ever raised.
+
+    private void checkRep() {
+        assert lifetime > 0;
+    }
+
+    /**
+     * Make an empty tracker with the default half-life.
+     */
+    public TrendingHashtags() {
+        this(DEFAULT_HALF_LIFE);
+    }
+
+    /**
+     * Make an empty tracker.
+     *
+     * @param halfLife time for a use of a hashtag to lose half its weight,
+     *                 positive
+     */
+    public TrendingHashtags(Duration halfLife) {
+        if (halfLife.isNegative() || halfLife.isZero()) {
+            throw new IllegalArgumentException("half-life must be positive: " + halfLife);
+        }
+        this.lifetime = halfLife.toNanos() / Math.log(2);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        checkRep();
+    }
+
+    /**
+     * Count the hashtags in a tweet, at the tweet's timestamp.
+     *
+     * @param tweet tweet to count
+     */
+    public void add(Tweet tweet) {
+        final long time = EpochNanos.saturated(tweet.getTimestamp());
+        newest.accumulateAndGet(time, Math::max);
+        final IntList seen = new IntList(4); // ranges already counted in this tweet
+        Hashtags.scan(tweet.getText(), (text, start, end) -> {
+            for (int i = 0; i < seen.size(); i += 2) {
+                if (sameFolded(text, seen.get(i), seen.get(i + 1), start, end)) {
+                    return;
+                }
+            }
+            seen.add(start);
+            seen.add(end);
+            add(text, start, end, time);
+        });
+    }
+
+    /**
+     * Count the hashtags in a batch of tweets.
+     *
+     * @param tweets tweets to count, not modified by this method
+     */
+    public void addAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @param n maximum number of hashtags to return, n >= 0
+     * @return the (up to) n hashtags with the highest scores at the latest
+     * timestamp added so far, in lower case, mapped to their scores, in
+     * descending order of score and then alphabetical order
+     */
+    public Map<String, Double> top(int n) {
+        long time = newest.get();
+        return time == Long.MIN_VALUE ? Collections.emptyMap() : top(n, time);
+    }
+
+    /**
+     * @param n   maximum number of hashtags to return, n >= 0
+     * @param now time at which to score the hashtags, usually no earlier
+     *            than the tweets added
+     * @return the (up to) n hashtags with the highest scores at time now, in
+     * lower case, mapped to their scores, in descending order of score and
+     * then alphabetical order
+     */
+    public Map<String, Double> top(int n, Instant now) {
+        return top(n, EpochNanos.saturated(now));
+    }
+
+    /**
+     * @param hashtag a hashtag, without the "#"
+     * @param now     time at which to score it
+     * @return the score of hashtag at time now, ignoring case; 0 if it has
+     * not been used or has decayed away
+     */
+    public double score(String hashtag, Instant now) {
+        if (hashtag.isEmpty()) {
+            return 0;
+        }
+        Stripe stripe = stripeOf(UsernameSet.hash(hashtag, 0, hashtag.length()));
+        stripe.lock.lock();
+        try {
+            int id = stripe.tags.indexOf(hashtag);
+            return id < 0 ? 0 : stripe.weights[id] * scaleAt(EpochNanos.saturated(now));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of hashtags currently tracked, including some that may
+     * have decayed to nearly 0
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.tags.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Map<String, Double> top(int n, long time) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be nonnegative: " + n);
+        }
+        // higher scores first, then alphabetically earlier hashtags; slot `spare` is free
+        final int k = Math.min(n, size());
+        final double[] scores = new double[k + 1];
+        final String[] tags = new String[k + 1];
+        TopIds best = new TopIds(k, (a, b) -> scores[a] != scores[b] ? scores[a] > scores[b]
+            : tags[a].compareTo(tags[b]) < 0);
+        int spare = 0;
+        int unused = 1;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                double scale = scaleAt(time);
+                for (int id = 0; id < stripe.tags.size(); id++) {
+                    scores[spare] = stripe.weights[id] * scale;
+                    tags[spare] = stripe.tags.get(id);
+                    spare = best.offer(spare);
+                    if (spare < 0) {
+                        spare = unused++;
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        Map<String, Double> top = new LinkedHashMap<>();
+        for (int slot : best.ids()) {
+            top.put(tags[slot], scores[slot]);
+        }
+        return top;
+    }
+
+    /* Add one use of text[start..end) at time. */
+    private void add(CharSequence text, int start, int end, long time) {
+        Stripe stripe = stripeOf(UsernameSet.hash(text, start, end));
+        while (true) {
+            stripe.lock.lock();
+            try {
+                double exponent = ((double) time - landmark) / lifetime;
+                if (exponent <= MAX_EXPONENT) {
+                    stripe.add(text, start, end, Math.exp(exponent));
+                    if (stripe.tags.size() >= stripe.pruneAt) {
+                        stripe.prune(pruneThreshold());
+                    }
+                    return;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            rebase(time); // the weight would be too large: move the landmark up first
+        }
+    }
+
+    /* Move the landmark to time, rescaling every weight, unless another thread already has. */
+    private void rebase(long time) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            if (((double) time - landmark) / lifetime > MAX_EXPONENT) {
+                double scale = Math.exp(((double) landmark - time) / lifetime);
+                landmark = time;
+                for (Stripe stripe : stripes) {
+                    for (int id = 0; id < stripe.tags.size(); id++) {
+                        stripe.weights[id] *= scale;
+                    }
+                    stripe.prune(pruneThreshold());
+                }
+            }
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].lock.unlock();
+            }
+        }
+        checkRep();
+    }
+
+    /* @return the factor from a weight to a score at time; requires a stripe lock */
+    private double scaleAt(long time) {
+        return Math.exp(((double) landmark - time) / lifetime);
+    }
+
+    /* @return the weight of a score of MIN_SCORE at the latest timestamp; requires a stripe lock */
+    private double pruneThreshold() {
+        return MIN_SCORE * Math.exp(Math.min(MAX_EXPONENT, ((double) newest.get() - landmark) / lifetime));
+    }
+
+    private Stripe stripeOf(int hash) {
+        return stripes[hash >>> (32 - STRIPE_BITS)];
+    }
+
+    /* @return true iff text[s1..e1) and text[s2..e2) are equal ignoring case */
+    private static boolean sameFolded(CharSequence text, int s1, int e1, int s2, int e2) {
+        if (e1 - s1 != e2 - s2) {
+            return false;
+        }
+        for (int i = 0; i < e1 - s1; i++) {
+            if (UsernameSet.foldChar(text.charAt(s1 + i)) != UsernameSet.foldChar(text.charAt(s2 + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The hashtags of one stripe, with their forward-decayed weights indexed
+     * by id in tags.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private UsernameSet tags = new UsernameSet();
+        private double[] weights = new double[16];
+        private int pruneAt = PRUNE_THRESHOLD;
+
+        void add(CharSequence text, int start, int end, double weight) {
+            int id = tags.add(text, start, end);
+            if (id == weights.length) {
+                weights = Arrays.copyOf(weights, 2 * weights.length);
+            }
+            weights[id] += weight;
+        }
+
+        /* Drop the hashtags with weights below threshold. */
+        void prune(double threshold) {
+            UsernameSet kept = new UsernameSet();
+            double[] keptWeights = new double[weights.length];
+            for (int id = 0; id < tags.size(); id++) {
+                if (weights[id] >= threshold) {
+                    keptWeights[kept.add(tags.get(id))] = weights[id];
+                }
+            }
+            tags = kept;
+            weights = keptWeights;
+            pruneAt = Math.max(PRUNE_THRESHOLD, 2 * kept.size());
+        }
+    }
+}
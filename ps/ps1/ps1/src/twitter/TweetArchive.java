@@ -0,0 +1,360 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An immutable, read-only view of a compact binary archive of tweets, mapped
+ * into memory from a file.
+ * <p>
+ * write() converts a list of tweets into an archive file; open() maps one
+ * back with FileChannel.map. The file holds fixed-width columns, so the id,
+ * timestamp and author of any tweet are read in place without decoding
+ * anything else, and column views share the mapped memory instead of copying
+ * it. Strings are decoded only when a Tweet, author or text is asked for.
+ * <p>
+ * File layout, all numbers big-endian:
+ * <pre>
+ *   header      int magic "TWAR", int version, int tweetCount n, int authorCount a,
+ *               long textStart, long authorStart
+ *   ids         long[n]
+ *   timestamps  long[n]   nanoseconds since the epoch
+ *   authors     int[n]    index into the author dictionary
+ *   textOffsets long[n]   byte offset of each text entry from textStart
+ *   authorOffsets long[a] byte offset of each dictionary entry from authorStart
+ *   texts       n entries of (int length, UTF-8 bytes)
+ *   dictionary  a entries of (int length, UTF-8 bytes)
+ * </pre>
+ * Authors are stored exactly as written; the dictionary holds each distinct
+ * spelling once.
+ */
+public class TweetArchive {
+
+    private static final int MAGIC = 0x54574152; // "TWAR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int TWEET_COLUMN_BYTES = 3 * Long.BYTES + Integer.BYTES;
+    /* Largest archive open() can map into one buffer. */
+    private static final long MAX_ARCHIVE_BYTES = Integer.MAX_VALUE;
+
+    private final ByteBuffer file;
+    private final int size;
+    private final int authorCount;
+    private final LongBuffer ids;
+    private final LongBuffer timestamps;
+    private final IntBuffer authors;
+    private final LongBuffer textOffsets;
+    private final LongBuffer authorOffsets;
+    private final long textStart;
+    private final long authorStart;
+
+    // Abstraction function:
+    //   AF(file, ...) = the list of `size` tweets whose i-th tweet has id ids[i],
+    //     timestamp timestamps[i], author dictionary entry authors[i] and text
+    //     entry i, where entries are decoded from file as described above
+    // Rep invariant:
+    //   ids, timestamps, textOffsets have size elements; authors has size
+    //   elements, each in [0, authorCount); authorOffsets has authorCount elements
+    // Safety from rep exposure:
+    //   all fields are private and final; column views handed out are
+    //   read-only duplicates of the mapped buffer.
+
+    private void checkRep() {
+        assert ids.limit() == size && timestamps.limit() == size;
+        assert authors.limit() == size && textOffsets.limit() == size;
+        assert authorOffsets.limit() == authorCount;
+    }
+
+    private TweetArchive(ByteBuffer file) throws IOException {
+        this.file = file.asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
+        if (this.file.limit() < HEADER_BYTES || this.file.getInt(0) != MAGIC) {
+            throw new IOException("not a tweet archive");
+        }
+        if (this.file.getInt(4) != VERSION) {
+            throw new IOException("unsupported tweet archive version " + this.file.getInt(4));
+        }
+        size = this.file.getInt(8);
+        authorCount = this.file.getInt(12);
+        textStart = this.file.getLong(16);
+        authorStart = this.file.getLong(24);
+        final long columnsEnd = HEADER_BYTES + (long) size * TWEET_COLUMN_BYTES + (long) authorCount * Long.BYTES;
+        if (size < 0 || authorCount < 0 || columnsEnd > this.file.limit()) {
+            throw new IOException("corrupt or truncated tweet archive: header declares " + size + " tweets and "
+                + authorCount + " authors, file has " + this.file.limit() + " bytes");
+        }
+        if (textStart != columnsEnd || authorStart < textStart || authorStart > this.file.limit()) {
+            throw new IOException("corrupt or truncated tweet archive: text at " + textStart
+                + " and authors at " + authorStart + ", file has " + this.file.limit() + " bytes");
+        }
+
+        int position = HEADER_BYTES; // every column ends by columnsEnd, which fits in an int
+        ids = slice(position, size * Long.BYTES).asLongBuffer();
+        position += size * Long.BYTES;
+        timestamps = slice(position, size * Long.BYTES).asLongBuffer();
+        position += size * Long.BYTES;
+        authors = slice(position, size * Integer.BYTES).asIntBuffer();
+        position += size * Integer.BYTES;
+        textOffsets = slice(position, size * Long.BYTES).asLongBuffer();
+        position += size * Long.BYTES;
+        authorOffsets = slice(position, authorCount * Long.BYTES).asLongBuffer();
+        checkRep();
+    }
+
+    /**
+     * Write tweets to a new archive file, replacing any existing file.
+     *
+     * @param tweets tweets to archive, not modified by this method. Every
+     *               timestamp must lie between the years 1677 and 2262.
+     * @param path   file to write
+     * @throws IOException if the file cannot be written, or the archive
+     *                     would be larger than 2GB
+     */
+    public static void write(List<Tweet> tweets, Path path) throws IOException {
+        final int n = tweets.size();
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> authorNames = new ArrayList<>();
+        int[] authorIds = new int[n];
+        byte[][] texts = new byte[n][];
+        long textBytes = 0;
+        for (int i = 0; i < n; i++) {
+            Tweet tweet = tweets.get(i);
+            Integer author = dictionary.get(tweet.getAuthor());
+            if (author == null) {
+                author = authorNames.size();
+                dictionary.put(tweet.getAuthor(), author);
+                authorNames.add(tweet.getAuthor());
+            }
+            authorIds[i] = author;
+            texts[i] = tweet.getText().getBytes(StandardCharsets.UTF_8);
+            textBytes += Integer.BYTES + texts[i].length;
+        }
+        final int a = authorNames.size();
+        byte[][] names = new byte[a][];
+        long nameBytes = 0;
+        for (int k = 0; k < a; k++) {
+            names[k] = authorNames.get(k).getBytes(StandardCharsets.UTF_8);
+            nameBytes += Integer.BYTES + names[k].length;
+        }
+        long textStart = HEADER_BYTES + (long) n * TWEET_COLUMN_BYTES + (long) a * Long.BYTES;
+        long authorStart = textStart + textBytes;
+        if (authorStart + nameBytes > MAX_ARCHIVE_BYTES) {
+            throw new IOException("tweet archive of " + n + " tweets would take " + (authorStart + nameBytes)
+                + " bytes, more than the " + MAX_ARCHIVE_BYTES + " an archive can hold");
+        }
+
+        try (OutputStream stream = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(a);
+            out.writeLong(textStart);
+            out.writeLong(authorStart);
+            for (Tweet tweet : tweets) {
+                out.writeLong(tweet.getId());
+            }
+            for (Tweet tweet : tweets) {
+                out.writeLong(EpochNanos.of(tweet.getTimestamp()));
+            }
+            for (int author : authorIds) {
+                out.writeInt(author);
+            }
+            long offset = 0;
+            for (byte[] text : texts) {
+                out.writeLong(offset);
+                offset += Integer.BYTES + text.length;
+            }
+            offset = 0;
+            for (byte[] name : names) {
+                out.writeLong(offset);
+                offset += Integer.BYTES + name.length;
+            }
+            for (byte[] text : texts) {
+                out.writeInt(text.length);
+                out.write(text);
+            }
+            for (byte[] name : names) {
+                out.writeInt(name.length);
+                out.write(name);
+            }
+        }
+    }
+
+    /**
+     * Map an archive file into memory.
+     *
+     * @param path archive file written by write()
+     * @return a view of the archive; the mapping stays valid after the file
+     * is closed, until the archive is garbage-collected
+     * @throws IOException if the file cannot be read, is not a tweet archive,
+     *                     or its header is corrupt or truncated
+     */
+    public static TweetArchive open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_ARCHIVE_BYTES) {
+                throw new IOException("tweet archive larger than 2GB: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TweetArchive(mapped);
+        }
+    }
+
+    /**
+     * @return number of tweets in the archive
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index tweet index, 0 <= index < size()
+     * @return id of that tweet
+     */
+    public long id(int index) {
+        return ids.get(index);
+    }
+
+    /**
+     * @param index tweet index, 0 <= index < size()
+     * @return timestamp of that tweet, in nanoseconds since the epoch
+     */
+    public long epochNanos(int index) {
+        return timestamps.get(index);
+    }
+
+    /**
+     * @param index tweet index, 0 <= index < size()
+     * @return position of that tweet's author in the author dictionary
+     */
+    public int authorId(int index) {
+        return authors.get(index);
+    }
+
+    /**
+     * @return number of distinct author spellings in the archive
+     */
+    public int authorCount() {
+        return authorCount;
+    }
+
+    /**
+     * @param authorId position in the author dictionary, 0 <= authorId < authorCount()
+     * @return that author's username, as written
+     */
+    public String authorName(int authorId) {
+        return readString(authorStart + authorOffsets.get(authorId));
+    }
+
+    /**
+     * @param index tweet index, 0 <= index < size()
+     * @return that tweet's author
+     */
+    public String author(int index) {
+        return authorName(authorId(index));
+    }
+
+    /**
+     * @param index tweet index, 0 <= index < size()
+     * @return that tweet's text
+     */
+    public String text(int index) {
+        return readString(textStart + textOffsets.get(index));
+    }
+
+    /**
+     * @param index tweet index, 0 <= index < size()
+     * @return the tweet at that index
+     */
+    public Tweet get(int index) {
+        return new Tweet(id(index), author(index), text(index), EpochNanos.toInstant(epochNanos(index)));
+    }
+
+    /**
+     * @return an unmodifiable list view of the archive that decodes each tweet
+     * when it is accessed
+     */
+    public List<Tweet> asList() {
+        return new TweetList();
+    }
+
+    /**
+     * @return a read-only view of the id column, sharing the mapped memory
+     */
+    public LongBuffer idColumn() {
+        return ids.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a read-only view of the timestamp column (nanoseconds since the
+     * epoch), sharing the mapped memory
+     */
+    public LongBuffer epochNanosColumn() {
+        return timestamps.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a read-only view of the author column (dictionary positions),
+     * sharing the mapped memory
+     */
+    public IntBuffer authorColumn() {
+        return authors.asReadOnlyBuffer();
+    }
+
+    /* @return a big-endian view of file[position .. position+length) */
+    private ByteBuffer slice(int position, int length) {
+        ByteBuffer view = file.duplicate();
+        view.position(position).limit(position + length);
+        return view.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /* Decode the length-prefixed UTF-8 string at an absolute position. */
+    private String readString(long position) {
+        int start = Math.toIntExact(position);
+        int length = file.getInt(start);
+        byte[] bytes = new byte[length];
+        ByteBuffer view = file.duplicate();
+        view.position(start + Integer.BYTES);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A list view over the archive.
+     */
+    private class TweetList extends AbstractList<Tweet> implements RandomAccess {
+
+        @Override
+        public Tweet get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("no tweet at index " + index);
+            }
+            return TweetArchive.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
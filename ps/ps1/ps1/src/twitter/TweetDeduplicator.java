@@ -0,0 +1,144 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A de-duplication stage for merged feeds of tweets: a predicate that is true
+ * of the first tweet seen with each id and false of every repeat, for use as
+ * stream.filter(deduplicator). Its output satisfies the assumption of Extract
+ * and Filter that tweet ids are distinct.
+ * <p>
+ * Ids are kept in a hash set of primitive longs, so no id is boxed. An
+ * unbounded deduplicator remembers every id. A windowed one is meant for
+ * endless streams: it forgets an id once the newest timestamp seen is more
+ * than the window past the tweet's timestamp, so memory is bounded by the
+ * number of tweets per window. Within the window every repeat is caught; a
+ * tweet that is already older than the window when it arrives is passed
+ * without being remembered, as its original may already be forgotten.
+ * <p>
+ * Not thread-safe.
+ */
+public class TweetDeduplicator implements Predicate<Tweet> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final LongHashSet seen = new LongHashSet();
+    private final long window; // in nanoseconds; Long.MAX_VALUE if unbounded
+    private long newest = Long.MIN_VALUE;
+    private long[] queueIds = new long[0];
+    private long[] queueTimes = new long[0];
+    private int head = 0;
+    private int queued = 0;
+
+    // Abstraction function:
+    //   AF(seen, window, newest, queue*) = the set of tweet ids `seen` already
+    //     passed and still remembered, where the remembered ids of a windowed
+    //     deduplicator are queueIds[head..head+queued) (cyclically) in arrival
+    //     order, with timestamps queueTimes, and newest is the latest
+    //     timestamp seen in epoch nanoseconds
+    // Rep invariant:
+    //   window > 0
+    //   window = Long.MAX_VALUE => queued = 0
+    //   window < Long.MAX_VALUE => seen = the ids in the queue, and
+    //     queued <= queueIds.length = queueTimes.length
+    // Safety from rep exposure:
+    //   all fields are private; only booleans and ints are returned.
+
+    private void checkRep() {
+        assert window > 0;
+        assert window < Long.MAX_VALUE || queued == 0;
+        assert window == Long.MAX_VALUE || seen.size() == queued;
+        assert queued <= queueIds.length && queueIds.length == queueTimes.length;
+    }
+
+    /**
+     * Make a deduplicator that remembers every id.
+     */
+    public TweetDeduplicator() {
+        this.window = Long.MAX_VALUE;
+        checkRep();
+    }
+
+    /**
+     * Make a deduplicator that remembers ids for a window of time.
+     *
+     * @param window how long past a tweet's timestamp to remember its id,
+     *               positive
+     */
+    public TweetDeduplicator(Duration window) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        this.window = window.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L ? Long.MAX_VALUE : window.toNanos();
+        this.queueIds = new long[INITIAL_CAPACITY];
+        this.queueTimes = new long[INITIAL_CAPACITY];
+        checkRep();
+    }
+
+    /**
+     * @param tweet a tweet
+     * @return true iff no tweet with the same id has been seen (within the
+     * window, if any); the tweet's id is then remembered
+     */
+    @Override
+    public boolean test(Tweet tweet) {
+        if (window == Long.MAX_VALUE) {
+            boolean first = seen.add(tweet.getId());
+            checkRep();
+            return first;
+        }
+        long time = EpochNanos.saturated(tweet.getTimestamp());
+        if (time > newest) {
+            newest = time;
+        }
+        long cutoff = newest > Long.MIN_VALUE + window ? newest - window : Long.MIN_VALUE;
+        evict(cutoff);
+        if (seen.contains(tweet.getId())) {
+            return false;
+        }
+        if (time >= cutoff) {
+            seen.add(tweet.getId());
+            enqueue(tweet.getId(), time);
+        }
+        checkRep();
+        return true;
+    }
+
+    /**
+     * @return number of ids remembered
+     */
+    public int size() {
+        return seen.size();
+    }
+
+    /* Forget ids in arrival order while their timestamps are before cutoff. */
+    private void evict(long cutoff) {
+        while (queued > 0 && queueTimes[head] < cutoff) {
+            seen.remove(queueIds[head]);
+            head = (head + 1) % queueIds.length;
+            queued--;
+        }
+    }
+
+    private void enqueue(long id, long time) {
+        if (queued == queueIds.length) {
+            // unroll the ring into arrays twice the size
+            long[] ids = Arrays.copyOfRange(queueIds, head, head + 2 * queued);
+            long[] times = Arrays.copyOfRange(queueTimes, head, head + 2 * queued);
+            System.arraycopy(queueIds, 0, ids, queued - head, head);
+            System.arraycopy(queueTimes, 0, times, queued - head, head);
+            queueIds = ids;
+            queueTimes = times;
+            head = 0;
+        }
+        int tail = (head + queued) % queueIds.length;
+        queueIds[tail] = id;
+        queueTimes[tail] = time;
+        queued++;
+    }
+}
@@ -0,0 +1,345 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.json.JsonException;
+
+/**
+ * Fetches tweets from several servers at once and merges them into one
+ * stream, as an Iterator over the tweets in arrival order.
+ * <p>
+ * Each source is read by its own thread with TweetStreamReader, so tweets
+ * flow as they are parsed. Connecting and each read are bounded by a timeout.
+ * A source that fails with an I/O error (including a timeout, or a body
+ * shorter than its Content-Length) is retried from the start, with
+ * exponential backoff, up to a retry limit. Tweets pass through one bounded
+ * queue: when the consumer falls behind, the source threads block instead of
+ * buffering without bound, and the servers see TCP backpressure.
+ * <p>
+ * Tweets are de-duplicated by id, so overlapping sources and retried sources
+ * never yield an id twice. To do so the fetcher remembers the id of every
+ * tweet it delivers, up to about 32 bytes each, until it is garbage: a
+ * fetcher is meant for finite sources read once, such as the sample server,
+ * not for an endless stream. To de-duplicate a long-running feed, use a
+ * TweetDeduplicator with a time window on its output instead.
+ * <p>
+ * A source that still fails after its retries, or serves malformed tweets,
+ * is dropped, and the others carry on; failures() reports
+ * why. Close the fetcher to stop early.
+ * <p>
+ * Not thread-safe as an Iterator: consume it from one thread.
+ */
+public class TweetFetcher implements Iterator<Tweet>, Closeable {
+
+    /** Default connect and read timeout per source. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+
+    /** Default number of retries per source after its first attempt. */
+    public static final int DEFAULT_RETRIES = 2;
+
+    /** Default capacity of the merged queue. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /* Delay before the first retry; doubled for each later one. */
+    private static final long FIRST_BACKOFF_MILLIS = 100;
+
+    /* Marks the end of the merged stream; compared by identity. */
+    private static final Tweet END = new Tweet(-1, "end", "", Instant.EPOCH);
+
+    private final BlockingQueue<Tweet> queue;
+    private final ExecutorService threads;
+    private final TweetDeduplicator seen = new TweetDeduplicator();
+    private final Map<URL, Exception> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicInteger running;
+    private Tweet pending = null;
+    private boolean finished = false;
+
+    // Abstraction function:
+    //   AF(queue, pending, finished, ...) = the merged sequence of tweets not
+    //     yet returned: pending (if not null), then the tweets in queue, then
+    //     the tweets that the `running` source threads have yet to deliver;
+    //     nothing more once finished
+    // Rep invariant:
+    //   finished => pending = null
+    //   pending != END
+    //   0 <= running <= number of sources
+    // Safety from rep exposure:
+    //   all fields are private; Tweets are immutable, and failures() returns a copy.
+    // Thread safety argument:
+    //   source threads share only queue, seen, failures and running. seen is
+    //   only used while holding its lock; the others are thread-safe. seen
+    //   admits each id once, so only one thread ever enqueues a given id.
+    //   The thread that decrements running to 0 is the last one that can
+    //   enqueue, and it enqueues END after everything else.
+    //   pending and finished are confined to the consuming thread.
+
+    private void checkRep() {
+        assert !finished || pending == null;
+        assert pending != END;
+        assert running.get() >= 0;
+    }
+
+    /**
+     * Start fetching from several servers with the default timeout, retries
+     * and capacity.
+     *
+     * @param sources URLs of servers that serve tweets in TweetReader's format
+     * @return a fetcher merging all of their tweets
+     */
+    public static TweetFetcher fetch(List<URL> sources) {
+        return new TweetFetcher(sources, DEFAULT_TIMEOUT, DEFAULT_RETRIES, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Start fetching from several servers.
+     *
+     * @param sources  URLs of servers that serve tweets in TweetReader's format
+     * @param timeout  connect and read timeout per attempt, positive
+     * @param retries  attempts per source after the first, retries >= 0
+     * @param capacity tweets buffered between the sources and the consumer, >= 1
+     */
+    public TweetFetcher(List<URL> sources, Duration timeout, int retries, int capacity) {
+        if (timeout.isNegative() || timeout.isZero() || retries < 0 || capacity < 1) {
+            throw new IllegalArgumentException("invalid fetcher parameters");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.running = new AtomicInteger(sources.size());
+        this.threads = Executors.newFixedThreadPool(Math.max(1, sources.size()), runnable -> {
+            Thread thread = new Thread(runnable, "tweet-fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final int timeoutMillis = (int) Math.min(Integer.MAX_VALUE, Math.max(1, timeout.toMillis()));
+        for (URL source : sources) {
+            threads.execute(() -> fetchSource(source, timeoutMillis, retries));
+        }
+        threads.shutdown();
+        if (sources.isEmpty()) {
+            finished = true;
+        }
+        checkRep();
+    }
+
+    /**
+     * @return true iff there is another tweet; blocks until one arrives or
+     * every source is done
+     */
+    @Override
+    public boolean hasNext() {
+        while (pending == null && !finished) {
+            try {
+                Tweet tweet = queue.take();
+                if (tweet == END) {
+                    finished = true;
+                } else {
+                    pending = tweet;
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for tweets", ie);
+            }
+        }
+        checkRep();
+        return pending != null;
+    }
+
+    /**
+     * @return the next tweet, from whichever source delivered it first
+     * @throws NoSuchElementException if every source is done
+     */
+    @Override
+    public Tweet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tweet tweet = pending;
+        pending = null;
+        return tweet;
+    }
+
+    /**
+     * @return a sequential stream over the remaining tweets; closing the
+     * stream closes this fetcher
+     */
+    public Stream<Tweet> stream() {
+        Spliterator<Tweet> spliterator = Spliterators.spliteratorUnknownSize(this,
+            Spliterator.NONNULL | Spliterator.IMMUTABLE | Spliterator.DISTINCT);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * @return the sources that were given up on so far, each mapped to the
+     * last error it failed with
+     */
+    public Map<URL, Exception> failures() {
+        synchronized (failures) {
+            return new LinkedHashMap<>(failures);
+        }
+    }
+
+    /**
+     * Stop fetching. The sources' threads are interrupted and the remaining
+     * tweets discarded.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        pending = null;
+        threads.shutdownNow();
+        queue.clear();
+    }
+
+    /* Body of a source's thread: read the source, retrying I/O failures. */
+    private void fetchSource(URL source, int timeoutMillis, int retries) {
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    read(source, timeoutMillis);
+                    return;
+                } catch (IOException | UncheckedIOException e) {
+                    if (attempt == retries) {
+                        failures.put(source, e);
+                        return;
+                    }
+                } catch (JsonException je) {
+                    if (!(je.getCause() instanceof IOException) || attempt == retries) {
+                        failures.put(source, je); // malformed, not just cut off: retrying won't help
+                        return;
+                    }
+                } catch (RuntimeException re) {
+                    failures.put(source, re);
+                    return;
+                }
+                Thread.sleep(FIRST_BACKOFF_MILLIS << Math.min(attempt, 16));
+            }
+        } catch (InterruptedException ie) {
+            // closed; END is not needed by anyone
+        } finally {
+            if (running.decrementAndGet() == 0) {
+                try {
+                    queue.put(END);
+                } catch (InterruptedException ie) {
+                    // closed
+                }
+            }
+        }
+    }
+
+    /* Read every tweet from a source into the queue, skipping ids already seen. */
+    private void read(URL source, int timeoutMillis) throws IOException, InterruptedException {
+        URLConnection connection = source.openConnection();
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        HttpURLConnection http = connection instanceof HttpURLConnection ? (HttpURLConnection) connection : null;
+        try {
+            if (http != null) {
+                int status = http.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) {
+                    InputStream error = http.getErrorStream();
+                    if (error != null) {
+                        error.close();
+                    }
+                    throw new IOException("HTTP " + status + " from " + source);
+                }
+            }
+            try (InputStream body = new LengthCheckedStream(connection.getInputStream(), connection.getContentLengthLong());
+                 TweetStreamReader tweets = new TweetStreamReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                while (tweets.hasNext()) {
+                    Tweet tweet = tweets.next();
+                    boolean first;
+                    synchronized (seen) {
+                        first = seen.test(tweet);
+                    }
+                    if (first) {
+                        queue.put(tweet);
+                    }
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+            }
+        } finally {
+            if (http != null) {
+                http.disconnect();
+            }
+        }
+    }
+
+    /**
+     * @param sources URLs of servers to read
+     * @return all distinct tweets from the sources that could be read, in
+     * arrival order
+     */
+    static List<Tweet> fetchAll(List<URL> sources) {
+        List<Tweet> tweets = new ArrayList<>();
+        try (TweetFetcher fetcher = fetch(sources)) {
+            fetcher.forEachRemaining(tweets::add);
+        }
+        return tweets;
+    }
+
+    /*
+     * A body that fails with EOFException if it ends before its declared
+     * length, so that a connection dropped mid-feed is an I/O error (and
+     * retried) rather than malformed JSON.
+     */
+    private static final class LengthCheckedStream extends FilterInputStream {
+        private final long length;
+        private long read = 0;
+
+        LengthCheckedStream(InputStream in, long length) {
+            super(in);
+            this.length = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            return counted(b < 0 ? -1 : 1) < 0 ? -1 : b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            return counted(super.read(buffer, offset, count));
+        }
+
+        private int counted(int n) throws EOFException {
+            if (n < 0 && length >= 0 && read < length) {
+                throw new EOFException("feed ended after " + read + " of " + length + " bytes");
+            }
+            read += Math.max(n, 0);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Bulk reader for large tweet feeds in the JSON format of TweetReader, which
+ * decodes tweets on several threads and still delivers them in input order.
+ * <p>
+ * The work is split into stages connected by bounded queues:
+ * <ol>
+ * <li>read: one thread pull-parses the JSON with TweetStreamReader, extracting
+ *     each tweet's id, author, text and raw created_at string, and groups
+ *     them into batches. JSON parsing is inherently sequential.
+ * <li>decode: a pool of worker threads decodes the timestamps of a batch with
+ *     CreatedAt's fixed-layout parser and constructs its Tweets.
+ * <li>deliver: the calling thread takes the batches in the order they were
+ *     read, waits for each to be decoded, and hands its tweets to the sink.
+ * </ol>
+ * The reader puts each batch's pending result into a bounded FIFO queue, so
+ * order is kept without any reordering buffer, and the reader blocks (instead
+ * of running ahead and filling the heap) when decoding or delivery falls
+ * behind.
+ */
+public class TweetIngestPipeline {
+
+    /* Tweets per batch: enough to make handing a batch to a worker cheap by comparison. */
+    static final int BATCH_SIZE = 512;
+
+    /* Batches in flight per worker; bounds the memory held by the pipeline. */
+    private static final int BATCHES_PER_WORKER = 4;
+
+    private TweetIngestPipeline() {
+        // static methods only
+    }
+
+    /**
+     * Read all tweets from a web server.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @return the tweets retrieved from the server, in the server's order
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static List<Tweet> readTweetsFromWeb(URL url) throws IOException {
+        return readAll(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read all tweets from a JSON array, using one decode worker per processor.
+     *
+     * @param reader source of the JSON text; closed by this method
+     * @return the tweets in the array, in input order
+     * @throws IOException if reading fails
+     * @throws javax.json.JsonException if the input is not a well-formed array of tweets
+     * @throws java.time.format.DateTimeParseException if a created_at field is malformed
+     */
+    public static List<Tweet> readAll(Reader reader) throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        ingest(reader, Runtime.getRuntime().availableProcessors(), tweets::add);
+        return tweets;
+    }
+
+    /**
+     * Read tweets from a JSON array and pass each one to a sink, in input order.
+     *
+     * @param reader  source of the JSON text; closed by this method
+     * @param workers number of decode threads, workers >= 1
+     * @param sink    called on the calling thread with each tweet, in input
+     *                order; if it throws, the pipeline is stopped and the
+     *                exception propagates
+     * @throws IOException if reading fails
+     * @throws javax.json.JsonException if the input is not a well-formed array of tweets
+     * @throws java.time.format.DateTimeParseException if a created_at field is malformed
+     */
+    public static void ingest(Reader reader, int workers, Consumer<? super Tweet> sink) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive: " + workers);
+        }
+        final BlockingQueue<CompletableFuture<List<Tweet>>> inFlight =
+            new ArrayBlockingQueue<>(workers * BATCHES_PER_WORKER);
+        final ExecutorService decoders = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "tweet-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CompletableFuture<List<Tweet>> endOfInput = CompletableFuture.completedFuture(null);
+
+        Thread readerThread = new Thread(() -> {
+            try (Reader input = reader; TweetStreamReader tweets = new TweetStreamReader(input)) {
+                List<TweetStreamReader.Fields> batch = new ArrayList<>(BATCH_SIZE);
+                TweetStreamReader.Fields fields;
+                while ((fields = tweets.nextFields()) != null) {
+                    batch.add(fields);
+                    if (batch.size() == BATCH_SIZE) {
+                        inFlight.put(decode(batch, decoders));
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    inFlight.put(decode(batch, decoders));
+                }
+                inFlight.put(endOfInput);
+            } catch (InterruptedException ie) {
+                // delivery has stopped; nobody is waiting for more batches
+            } catch (IOException | RuntimeException | Error e) {
+                CompletableFuture<List<Tweet>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                try {
+                    inFlight.put(failed);
+                } catch (InterruptedException ie) {
+                    // delivery has stopped
+                }
+            }
+        }, "tweet-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        try {
+            CompletableFuture<List<Tweet>> next;
+            while ((next = inFlight.take()) != endOfInput) {
+                for (Tweet tweet : next.get()) {
+                    sink.accept(tweet);
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while reading tweets", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            readerThread.interrupt();
+            decoders.shutdownNow();
+        }
+    }
+
+    /* Submit a batch to be decoded into tweets by the worker pool. */
+    private static CompletableFuture<List<Tweet>> decode(List<TweetStreamReader.Fields> batch,
+                                                         ExecutorService decoders) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Tweet> tweets = new ArrayList<>(batch.size());
+            for (TweetStreamReader.Fields fields : batch) {
+                tweets.add(fields.toTweet());
+            }
+            return tweets;
+        }, decoders);
+    }
+}
@@ -0,0 +1,421 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable query over tweets, built from the Filter predicates combined
+ * with AND, OR and NOT.
+ * <p>
+ * filter() and ordinals() test each tweet once against the whole query and
+ * collect the matches in input order, so a query that combines several
+ * Filter methods is one scan with no intermediate lists. Before the scan,
+ * the query is planned against a small sample of the input: the selectivity
+ * of each predicate is measured on the sample, and the operands of each AND
+ * and OR are reordered so that the cheapest and most decisive ones run first
+ * and short-circuit the rest. Reordering never changes the result.
+ */
+public abstract class TweetQuery {
+
+    /* Tweets sampled to estimate selectivities; enough to tell 1% from 10%. */
+    private static final int SAMPLE_SIZE = 256;
+
+    /*
+     * Relative costs of the leaf predicates, in units of one writtenBy test:
+     * a timestamp comparison costs about the same, and a word search costs
+     * about as much per word as scanning a typical tweet's characters.
+     */
+    private static final double COMPARE_COST = 1;
+    private static final double WORD_SEARCH_COST = 8;
+
+    // Abstraction function:
+    //   AF(this) = the predicate on tweets described by the subclass
+    // Rep invariant:
+    //   each operand list of And and Or has at least 2 elements
+    // Safety from rep exposure:
+    //   all fields of the subclasses are private, final and immutable, or
+    //   unmodifiable lists of immutable queries.
+
+    /* Subclasses only: private nested classes below. */
+    private TweetQuery() {
+    }
+
+    /**
+     * @param username Twitter username, required to be a valid Twitter username as
+     *                 defined by Tweet.getAuthor()'s spec.
+     * @return a query matching the tweets whose author is username, ignoring
+     * case; see Filter.writtenBy
+     */
+    public static TweetQuery writtenBy(String username) {
+        return new WrittenBy(username);
+    }
+
+    /**
+     * @param timespan timespan
+     * @return a query matching the tweets sent during timespan, including its
+     * endpoints; see Filter.inTimespan
+     */
+    public static TweetQuery inTimespan(Timespan timespan) {
+        return new InTimespan(timespan);
+    }
+
+    /**
+     * @param words a nonempty list of words to search for. A word is a
+     *              nonempty sequence of nonspace characters.
+     * @return a query matching the tweets whose text includes at least one of
+     * the words, ignoring case; see Filter.containing
+     */
+    public static TweetQuery containing(List<String> words) {
+        return new Containing(words);
+    }
+
+    /**
+     * @param queries queries to combine, at least one
+     * @return a query matching the tweets matched by all of queries
+     */
+    public static TweetQuery and(TweetQuery... queries) {
+        return combine(true, queries);
+    }
+
+    /**
+     * @param queries queries to combine, at least one
+     * @return a query matching the tweets matched by any of queries
+     */
+    public static TweetQuery or(TweetQuery... queries) {
+        return combine(false, queries);
+    }
+
+    /**
+     * @param query query to negate
+     * @return a query matching the tweets not matched by query
+     */
+    public static TweetQuery not(TweetQuery query) {
+        return query instanceof Not ? ((Not) query).operand : new Not(query);
+    }
+
+    /**
+     * @param tweet a tweet
+     * @return true iff this query matches tweet
+     */
+    public abstract boolean matches(Tweet tweet);
+
+    /**
+     * Run this query over a list of tweets in one pass.
+     *
+     * @param tweets a list of tweets with distinct ids, not modified by this method.
+     * @return all and only the tweets in the list that this query matches, in
+     * the same order as in the input list.
+     */
+    public List<Tweet> filter(List<Tweet> tweets) {
+        TweetQuery plan = plan(tweets);
+        List<Tweet> ans = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            if (plan.matches(tweet)) {
+                ans.add(tweet);
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * Run this query over a list of tweets in one pass.
+     *
+     * @param tweets a list of tweets with distinct ids, not modified by this method.
+     * @return the positions in the list of all and only the tweets that this
+     * query matches, in increasing order
+     */
+    public int[] ordinals(List<Tweet> tweets) {
+        TweetQuery plan = plan(tweets);
+        IntList ans = new IntList();
+        int ordinal = 0;
+        for (Tweet tweet : tweets) {
+            if (plan.matches(tweet)) {
+                ans.add(ordinal);
+            }
+            ordinal++;
+        }
+        return ans.toArray();
+    }
+
+    /**
+     * @param tweets a list of tweets
+     * @return an equivalent query, with the operands of every AND and OR in
+     * the order that is expected to be cheapest on tweets like these
+     */
+    TweetQuery plan(List<Tweet> tweets) {
+        return reorder(sample(tweets)).query;
+    }
+
+    /* @return this query's estimated selectivity and cost on sample, with its operands reordered */
+    abstract Estimate reorder(List<Tweet> sample);
+
+    /* @return up to SAMPLE_SIZE tweets spread evenly over the list */
+    private static List<Tweet> sample(List<Tweet> tweets) {
+        if (tweets.size() <= SAMPLE_SIZE) {
+            return tweets;
+        }
+        List<Tweet> sample = new ArrayList<>(SAMPLE_SIZE);
+        if (tweets instanceof RandomAccess) {
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                sample.add(tweets.get((int) ((long) i * tweets.size() / SAMPLE_SIZE)));
+            }
+        } else {
+            for (Tweet tweet : tweets) {
+                sample.add(tweet);
+                if (sample.size() == SAMPLE_SIZE) {
+                    break;
+                }
+            }
+        }
+        return sample;
+    }
+
+    private static TweetQuery combine(boolean isAnd, TweetQuery[] queries) {
+        if (queries.length == 0) {
+            throw new IllegalArgumentException("need at least one query to combine");
+        }
+        // flatten nested operators of the same kind, so they can all be reordered together
+        List<TweetQuery> operands = new ArrayList<>();
+        for (TweetQuery query : queries) {
+            if (isAnd && query instanceof And) {
+                operands.addAll(((And) query).operands);
+            } else if (!isAnd && query instanceof Or) {
+                operands.addAll(((Or) query).operands);
+            } else {
+                operands.add(query);
+            }
+        }
+        if (operands.size() == 1) {
+            return operands.get(0);
+        }
+        return isAnd ? new And(operands) : new Or(operands);
+    }
+
+    /* @return fraction of the sample that query matches, smoothed away from 0 and 1 */
+    private static double selectivity(TweetQuery query, List<Tweet> sample) {
+        int matches = 0;
+        for (Tweet tweet : sample) {
+            if (query.matches(tweet)) {
+                matches++;
+            }
+        }
+        return (matches + 1.0) / (sample.size() + 2.0);
+    }
+
+    /**
+     * A query with its estimated selectivity (fraction of tweets matched) and
+     * cost per tweet tested.
+     */
+    static final class Estimate {
+        final TweetQuery query;
+        final double selectivity;
+        final double cost;
+
+        Estimate(TweetQuery query, double selectivity, double cost) {
+            this.query = query;
+            this.selectivity = selectivity;
+            this.cost = cost;
+        }
+    }
+
+    private static final class WrittenBy extends TweetQuery {
+        private final String username;
+
+        WrittenBy(String username) {
+            this.username = username;
+        }
+
+        @Override
+        public boolean matches(Tweet tweet) {
+            return Filter.isWrittenBy(tweet, username);
+        }
+
+        @Override
+        Estimate reorder(List<Tweet> sample) {
+            return new Estimate(this, selectivity(this, sample), COMPARE_COST);
+        }
+
+        @Override
+        public String toString() {
+            return "writtenBy(" + username + ")";
+        }
+    }
+
+    private static final class InTimespan extends TweetQuery {
+        private final Timespan timespan;
+
+        InTimespan(Timespan timespan) {
+            this.timespan = timespan;
+        }
+
+        @Override
+        public boolean matches(Tweet tweet) {
+            return Filter.isInTimespan(tweet, timespan);
+        }
+
+        @Override
+        Estimate reorder(List<Tweet> sample) {
+            return new Estimate(this, selectivity(this, sample), COMPARE_COST);
+        }
+
+        @Override
+        public String toString() {
+            return "inTimespan(" + timespan.getStart() + ", " + timespan.getEnd() + ")";
+        }
+    }
+
+    private static final class Containing extends TweetQuery {
+        private final List<String> words;
+        private final char[][] folded;
+
+        Containing(List<String> words) {
+            if (words.isEmpty()) {
+                throw new IllegalArgumentException("need at least one word");
+            }
+            this.words = Collections.unmodifiableList(new ArrayList<>(words));
+            this.folded = Words.foldAll(words);
+        }
+
+        @Override
+        public boolean matches(Tweet tweet) {
+            return Words.containsAny(tweet.getText(), folded);
+        }
+
+        @Override
+        Estimate reorder(List<Tweet> sample) {
+            return new Estimate(this, selectivity(this, sample), WORD_SEARCH_COST * folded.length);
+        }
+
+        @Override
+        public String toString() {
+            return "containing" + words;
+        }
+    }
+
+    private static final class Not extends TweetQuery {
+        private final TweetQuery operand;
+
+        Not(TweetQuery operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean matches(Tweet tweet) {
+            return !operand.matches(tweet);
+        }
+
+        @Override
+        Estimate reorder(List<Tweet> sample) {
+            Estimate inner = operand.reorder(sample);
+            return new Estimate(new Not(inner.query), 1 - inner.selectivity, inner.cost);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + operand;
+        }
+    }
+
+    private static final class And extends TweetQuery {
+        private final List<TweetQuery> operands;
+
+        And(List<TweetQuery> operands) {
+            this.operands = Collections.unmodifiableList(new ArrayList<>(operands));
+            assert operands.size() >= 2;
+        }
+
+        @Override
+        public boolean matches(Tweet tweet) {
+            for (TweetQuery operand : operands) {
+                if (!operand.matches(tweet)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Estimate reorder(List<Tweet> sample) {
+            Estimate[] estimates = estimateAll(operands, sample);
+            // an operand saves work in proportion to how often it is false
+            Arrays.sort(estimates, Comparator.comparingDouble(e -> e.cost / (1 - e.selectivity)));
+            double selectivity = 1;
+            double cost = 0;
+            List<TweetQuery> ordered = new ArrayList<>();
+            for (Estimate estimate : estimates) {
+                cost += selectivity * estimate.cost; // runs only while everything before was true
+                selectivity *= estimate.selectivity;
+                ordered.add(estimate.query);
+            }
+            return new Estimate(new And(ordered), selectivity, cost);
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " AND ");
+        }
+    }
+
+    private static final class Or extends TweetQuery {
+        private final List<TweetQuery> operands;
+
+        Or(List<TweetQuery> operands) {
+            this.operands = Collections.unmodifiableList(new ArrayList<>(operands));
+            assert operands.size() >= 2;
+        }
+
+        @Override
+        public boolean matches(Tweet tweet) {
+            for (TweetQuery operand : operands) {
+                if (operand.matches(tweet)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Estimate reorder(List<Tweet> sample) {
+            Estimate[] estimates = estimateAll(operands, sample);
+            // an operand saves work in proportion to how often it is true
+            Arrays.sort(estimates, Comparator.comparingDouble(e -> e.cost / e.selectivity));
+            double miss = 1;
+            double cost = 0;
+            List<TweetQuery> ordered = new ArrayList<>();
+            for (Estimate estimate : estimates) {
+                cost += miss * estimate.cost; // runs only while everything before was false
+                miss *= 1 - estimate.selectivity;
+                ordered.add(estimate.query);
+            }
+            return new Estimate(new Or(ordered), 1 - miss, cost);
+        }
+
+        @Override
+        public String toString() {
+            return join(operands, " OR ");
+        }
+    }
+
+    private static Estimate[] estimateAll(List<TweetQuery> operands, List<Tweet> sample) {
+        Estimate[] estimates = new Estimate[operands.size()];
+        for (int i = 0; i < estimates.length; i++) {
+            estimates[i] = operands.get(i).reorder(sample);
+        }
+        return estimates;
+    }
+
+    private static String join(List<TweetQuery> operands, String operator) {
+        StringBuilder result = new StringBuilder("(");
+        for (int i = 0; i < operands.size(); i++) {
+            result.append(i == 0 ? "" : operator).append(operands.get(i));
+        }
+        return result.append(")").toString();
+    }
+}
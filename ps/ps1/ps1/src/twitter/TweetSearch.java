@@ -0,0 +1,588 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mutable full-text index over tweets, ranking them for a query by Okapi
+ * BM25 and returning the top k.
+ * <p>
+ * Words are split and folded as Filter.containing() and TermIndex do: they
+ * are bounded by space characters and compared ignoring case. A tweet's
+ * length is its number of words. For query words q and a tweet d,
+ * <pre>
+ *   score(q, d) = sum over distinct words t of q that occur in d of
+ *                 idf(t) * tf(t,d) * (k1 + 1) / (tf(t,d) + k1 * (1 - b + b * |d| / avgdl))
+ *   idf(t)      = ln(1 + (N - df(t) + 0.5) / (df(t) + 0.5))
+ * </pre>
+ * where tf(t,d) is the number of times t occurs in d, df(t) the number of
+ * indexed tweets containing t, N the number of indexed tweets and avgdl their
+ * mean length.
+ * <p>
+ * Each word's posting list holds (ordinal, tf) pairs in increasing ordinal
+ * order, as variable-length gaps and frequencies (7 bits per byte), in blocks
+ * of BLOCK postings. For each block the index keeps its last ordinal, where
+ * its bytes end, its greatest tf and its least tweet length, so a query can
+ * skip a block without decoding it, and bound the score any tweet in it can
+ * get. Top-k retrieval uses WAND with block-max bounds: tweets are visited
+ * in ordinal order, and only those whose bounded score could beat the
+ * current k-th best are scored, so the common words of a query cost little
+ * once a few good matches are found.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TweetSearch {
+
+    /** Default BM25 term frequency saturation, k1. */
+    public static final double DEFAULT_K1 = 1.2;
+
+    /** Default BM25 length normalization, b. */
+    public static final double DEFAULT_B = 0.75;
+
+    /* Postings per block. */
+    private static final int BLOCK = 128;
+
+    /* Ordinal of an exhausted cursor. */
+    private static final int END = Integer.MAX_VALUE;
+
+    /*
+     * Bounds are scaled up by this much, so rounding can never make a bound
+     * smaller than a score it bounds.
+     */
+    private static final double BOUND_SLACK = 1 + 1e-9;
+
+    private final double k1;
+    private final double b;
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final IntList lengths = new IntList();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength = 0;
+
+    /* Scratch space for add(): the posting lists a tweet touches. */
+    private final List<Postings> touched = new ArrayList<>();
+    private int pendingLength;
+
+    // Abstraction function:
+    //   AF(k1, b, tweets, lengths, postings, totalLength) = the list `tweets`,
+    //     ranked with BM25 parameters k1 and b, where tweet ordinal i has
+    //     lengths.get(i) words and the folded word w occurs tf times in each
+    //     tweet whose (ordinal, tf) postings.get(w) decodes to
+    // Rep invariant:
+    //   k1 >= 0, 0 <= b <= 1
+    //   lengths.size() = tweets.size(), totalLength = sum of lengths
+    //   every key of postings is nonempty, contains no whitespace and is folded
+    //   to lower case
+    //   every posting list is nonempty, strictly increasing in ordinal, with
+    //     ordinals < tweets.size() and tf >= 1
+    //   touched is empty between calls
+    // Safety from rep exposure:
+    //   all fields are private; queries return fresh lists and arrays, and
+    //   Tweets are immutable.
+
+    private void checkRep() {
+        assert k1 >= 0 && b >= 0 && b <= 1;
+        assert lengths.size() == tweets.size();
+        assert touched.isEmpty();
+        for (Postings list : postings.values()) {
+            assert list.count > 0 && list.last < tweets.size();
+        }
+    }
+
+    /**
+     * Make an empty index with the default BM25 parameters.
+     */
+    public TweetSearch() {
+        this(DEFAULT_K1, DEFAULT_B);
+    }
+
+    /**
+     * Make an empty index.
+     *
+     * @param k1 BM25 term frequency saturation, k1 >= 0
+     * @param b  BM25 length normalization, 0 <= b <= 1
+     * @throws IllegalArgumentException if k1 or b is out of range
+     */
+    public TweetSearch(double k1, double b) {
+        if (!(k1 >= 0) || Double.isInfinite(k1) || !(b >= 0 && b <= 1)) {
+            throw new IllegalArgumentException("invalid BM25 parameters: k1 = " + k1 + ", b = " + b);
+        }
+        this.k1 = k1;
+        this.b = b;
+        checkRep();
+    }
+
+    /**
+     * Make an index over a list of tweets, with the default BM25 parameters.
+     *
+     * @param tweets tweets to index, not modified by this method
+     * @return an index whose ordinal i is tweets.get(i)
+     */
+    public static TweetSearch of(List<Tweet> tweets) {
+        TweetSearch index = new TweetSearch();
+        for (Tweet tweet : tweets) {
+            index.add(tweet);
+        }
+        index.checkRep();
+        return index;
+    }
+
+    /**
+     * Append a tweet to the index.
+     *
+     * @param tweet tweet to append
+     * @return the ordinal of the appended tweet
+     */
+    public int add(Tweet tweet) {
+        final int ordinal = tweets.size();
+        tweets.add(tweet);
+        pendingLength = 0;
+        Words.split(tweet.getText(), (text, start, end) -> {
+            Postings list = postings.computeIfAbsent(Words.fold(text, start, end), word -> new Postings());
+            if (list.pendingOrdinal != ordinal) {
+                list.pendingOrdinal = ordinal;
+                list.pendingTf = 0;
+                touched.add(list);
+            }
+            list.pendingTf++;
+            pendingLength++;
+        });
+        for (Postings list : touched) {
+            list.add(ordinal, list.pendingTf, pendingLength);
+        }
+        touched.clear();
+        lengths.add(pendingLength);
+        totalLength += pendingLength;
+        return ordinal;
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return number of distinct (case-insensitive) words in the index
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Find the best matches for a query.
+     *
+     * @param words query words. A word is a nonempty sequence of nonspace
+     *              characters; repeats count once, ignoring case.
+     * @param k     number of tweets wanted, k >= 0
+     * @return the min(k, m) indexed tweets with the greatest BM25 score for
+     * the words, where m is the number of indexed tweets that contain at least
+     * one of the words; in decreasing order of score, and in the order they
+     * were added among equal scores
+     * @throws IllegalArgumentException if k < 0
+     */
+    public List<Tweet> search(List<String> words, int k) {
+        int[] ordinals = topOrdinals(words, k);
+        List<Tweet> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(tweets.get(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Find the ordinals of the best matches for a query.
+     *
+     * @param words query words, as for search()
+     * @param k     number of tweets wanted, k >= 0
+     * @return the ordinals of the tweets search(words, k) returns, in the same order
+     * @throws IllegalArgumentException if k < 0
+     */
+    public int[] topOrdinals(List<String> words, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative: " + k);
+        }
+        List<Postings> lists = lists(words);
+        if (k == 0 || lists.isEmpty()) {
+            return new int[0];
+        }
+        final double norm = k1 * (1 - b);
+        final double normPerWord = k1 * b * tweets.size() / totalLength;
+        Cursor[] terms = new Cursor[lists.size()];
+        for (int t = 0; t < terms.length; t++) {
+            terms[t] = new Cursor(lists.get(t), idf(lists.get(t)), norm, normPerWord);
+        }
+        Cursor[] order = terms.clone();
+        // higher scores first, then earlier ordinals; a tweet kept in top is
+        // held in a slot of scores and ordinals, and slot `spare` is free
+        final int capacity = Math.min(k, tweets.size());
+        final double[] scores = new double[capacity + 1];
+        final int[] ordinals = new int[capacity + 1];
+        TopIds top = new TopIds(capacity, (x, y) -> scores[x] != scores[y] ? scores[x] > scores[y]
+            : ordinals[x] < ordinals[y]);
+        int spare = 0;
+        int unused = 1;
+
+        while (true) {
+            // keep cursors sorted by ordinal; there are few, and they stay nearly sorted
+            for (int i = 1; i < order.length; i++) {
+                Cursor cursor = order[i];
+                int j = i;
+                for (; j > 0 && order[j - 1].ordinal > cursor.ordinal; j--) {
+                    order[j] = order[j - 1];
+                }
+                order[j] = cursor;
+            }
+
+            // the pivot is the first tweet whose bounded score could beat the threshold
+            // a tweet must score above this to be kept; ties go to the earlier, kept one
+            final double threshold = top.isFull() ? scores[top.weakest()] : 0;
+            double bound = 0;
+            int pivot = -1;
+            for (int i = 0; i < order.length && order[i].ordinal != END; i++) {
+                bound += order[i].bound;
+                if (bound > threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                break;
+            }
+            final int ordinal = order[pivot].ordinal;
+            int last = pivot;
+            while (last + 1 < order.length && order[last + 1].ordinal == ordinal) {
+                last++;
+            }
+
+            // bound the tweets from the pivot on by the blocks of order[0..last]
+            // that hold them, from the skip entries alone, without decoding
+            double blockBound = 0;
+            int next = last + 1 < order.length ? order[last + 1].ordinal : END;
+            for (int i = 0; i <= last; i++) {
+                int block = order[i].blockAt(ordinal);
+                if (block < order[i].blockCount()) {
+                    blockBound += order[i].blockBound(block);
+                    next = Math.min(next, order[i].blockLast(block) + 1);
+                }
+            }
+            if (blockBound <= threshold) {
+                // no tweet before the end of one of those blocks, or before the
+                // next cursor, can beat the threshold
+                for (int i = 0; i <= last; i++) {
+                    order[i].advance(next);
+                }
+                continue;
+            }
+
+            if (order[0].ordinal != ordinal) {
+                // the cursors before the pivot can't reach the threshold without it
+                for (int i = 0; i < pivot; i++) {
+                    order[i].advance(ordinal);
+                }
+                continue;
+            }
+
+            final int length = lengths.get(ordinal);
+            double score = 0;
+            for (Cursor term : terms) {
+                if (term.ordinal == ordinal) {
+                    score += termScore(term.idf, term.tf(), length, norm, normPerWord);
+                }
+            }
+            scores[spare] = score;
+            ordinals[spare] = ordinal;
+            spare = top.offer(spare);
+            if (spare < 0) {
+                spare = unused++;
+            }
+            for (int i = 0; i <= last; i++) {
+                order[i].advance(ordinal + 1);
+            }
+        }
+        int[] result = top.ids();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ordinals[result[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Score one indexed tweet for a query, without the index's early
+     * termination; explains the ranking of search().
+     *
+     * @param words   query words, as for search()
+     * @param ordinal ordinal of an indexed tweet, 0 <= ordinal < size()
+     * @return the BM25 score of that tweet for the words, 0 if it contains none of them
+     * @throws IndexOutOfBoundsException if ordinal is out of range
+     */
+    public double score(List<String> words, int ordinal) {
+        final Tweet tweet = tweets.get(ordinal);
+        final int length = lengths.get(ordinal);
+        final double norm = k1 * (1 - b);
+        final double normPerWord = k1 * b * tweets.size() / totalLength;
+        double score = 0;
+        for (Map.Entry<String, Postings> entry : entries(words)) {
+            final String word = entry.getKey();
+            final int[] tf = new int[1];
+            Words.split(tweet.getText(), (text, start, end) -> {
+                if (end - start == word.length() && Words.fold(text, start, end).equals(word)) {
+                    tf[0]++;
+                }
+            });
+            if (tf[0] > 0) {
+                score += termScore(idf(entry.getValue()), tf[0], length, norm, normPerWord);
+            }
+        }
+        return score;
+    }
+
+    /* @return the indexed posting lists of the distinct folded words, in query order */
+    private List<Postings> lists(List<String> words) {
+        List<Postings> lists = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : entries(words)) {
+            lists.add(entry.getValue());
+        }
+        return lists;
+    }
+
+    /* @return the distinct folded words that are indexed, with their posting lists, in query order */
+    private List<Map.Entry<String, Postings>> entries(List<String> words) {
+        List<Map.Entry<String, Postings>> entries = new ArrayList<>(words.size());
+        for (String word : words) {
+            String folded = Words.fold(word);
+            Postings list = postings.get(folded);
+            if (list != null && !containsValue(entries, list)) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(folded, list));
+            }
+        }
+        return entries;
+    }
+
+    private static boolean containsValue(List<Map.Entry<String, Postings>> entries, Postings list) {
+        for (Map.Entry<String, Postings> entry : entries) {
+            if (entry.getValue() == list) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* @return BM25 idf of a word with posting list `list` */
+    private double idf(Postings list) {
+        return Math.log(1 + (tweets.size() - list.count + 0.5) / (list.count + 0.5));
+    }
+
+    /*
+     * @return BM25 score of one word occurring tf times in a tweet of `length`
+     * words, where norm + normPerWord * length = k1 * (1 - b + b * length / avgdl).
+     * Nondecreasing in tf and nonincreasing in length, so the greatest tf and
+     * least length of a block bound the scores in it.
+     */
+    private double termScore(double idf, int tf, int length, double norm, double normPerWord) {
+        return idf * tf * (k1 + 1) / (tf + norm + normPerWord * length);
+    }
+
+    /**
+     * A posting list: (ordinal, tf) pairs in strictly increasing ordinal
+     * order, each stored as the ordinal's gap from the previous one and then
+     * the tf, in a variable-length byte encoding (7 bits per byte, high bit
+     * set on every byte but the last of a number). The gap of a block's first
+     * posting is from the previous block's last ordinal.
+     */
+    private static class Postings {
+
+        /* Fields of a block's entry in `blocks`. */
+        static final int LAST = 0;
+        static final int BYTES_END = 1;
+        static final int MAX_TF = 2;
+        static final int MIN_LENGTH = 3;
+        static final int FIELDS = 4;
+
+        byte[] bytes = new byte[4];
+        int length = 0;
+        int[] blocks = new int[FIELDS];
+        int count = 0;
+        int last = -1;
+        int maxTf = 0;
+        int minLength = Integer.MAX_VALUE;
+
+        /* the tweet being added to the index, and this word's tf in it so far */
+        int pendingOrdinal = -1;
+        int pendingTf;
+
+        /* Append a posting for a tweet of `words` words. */
+        void add(int ordinal, int tf, int words) {
+            assert ordinal > last && tf >= 1;
+            int block = count / BLOCK;
+            if (count % BLOCK == 0) {
+                if ((block + 1) * FIELDS > blocks.length) {
+                    blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                }
+                blocks[block * FIELDS + MAX_TF] = 0;
+                blocks[block * FIELDS + MIN_LENGTH] = Integer.MAX_VALUE;
+            }
+            if (length + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            write(ordinal - last);
+            write(tf);
+            last = ordinal;
+            count++;
+            maxTf = Math.max(maxTf, tf);
+            minLength = Math.min(minLength, words);
+            final int entry = block * FIELDS;
+            blocks[entry + LAST] = ordinal;
+            blocks[entry + BYTES_END] = length;
+            blocks[entry + MAX_TF] = Math.max(blocks[entry + MAX_TF], tf);
+            blocks[entry + MIN_LENGTH] = Math.min(blocks[entry + MIN_LENGTH], words);
+        }
+
+        private void write(int value) {
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        int blockCount() {
+            return (count + BLOCK - 1) / BLOCK;
+        }
+    }
+
+    /**
+     * A position in a posting list during a query. The current block is
+     * decoded into arrays; other blocks are skipped by their last ordinal.
+     */
+    private class Cursor {
+
+        final Postings list;
+        final double idf;
+        final double bound;
+        private final double norm;
+        private final double normPerWord;
+        private final int[] ordinals = new int[BLOCK];
+        private final int[] tfs = new int[BLOCK];
+        private int block = -1;
+        private int position = 0;
+
+        /* current ordinal, or END if the list is exhausted */
+        int ordinal;
+
+        Cursor(Postings list, double idf, double norm, double normPerWord) {
+            this.list = list;
+            this.idf = idf;
+            this.norm = norm;
+            this.normPerWord = normPerWord;
+            this.bound = termScore(idf, list.maxTf, list.minLength, norm, normPerWord) * BOUND_SLACK;
+            decode(0);
+            ordinal = ordinals[0];
+        }
+
+        /* @return tf at the current ordinal, which is not END */
+        int tf() {
+            return tfs[position];
+        }
+
+        /*
+         * @return index of the first block, from the current one on, whose
+         * last ordinal is >= target, or list.blockCount() if there is none
+         */
+        int blockAt(int target) {
+            if (blockLast(block) >= target) {
+                return block;
+            }
+            int low = block + 1;
+            int high = blockCount();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (blockLast(middle) < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        int blockCount() {
+            return list.blockCount();
+        }
+
+        /* @return last ordinal of block b */
+        int blockLast(int b) {
+            return list.blocks[b * Postings.FIELDS + Postings.LAST];
+        }
+
+        /* @return bound on the scores of the tweets in block b */
+        double blockBound(int b) {
+            return termScore(idf, list.blocks[b * Postings.FIELDS + Postings.MAX_TF],
+                list.blocks[b * Postings.FIELDS + Postings.MIN_LENGTH], norm, normPerWord) * BOUND_SLACK;
+        }
+
+        /* Move to the first posting with ordinal >= target, or to END. */
+        void advance(int target) {
+            if (ordinal >= target) {
+                return;
+            }
+            if (target == END) {
+                ordinal = END;
+                return;
+            }
+            final int b = blockAt(target);
+            if (b == blockCount()) {
+                ordinal = END;
+                return;
+            }
+            if (b != block) {
+                decode(b);
+            }
+            while (ordinals[position] < target) {
+                position++;
+            }
+            ordinal = ordinals[position];
+        }
+
+        /* Decode block b into the arrays and move to its first posting. */
+        private void decode(int b) {
+            final int[] blocks = list.blocks;
+            final byte[] bytes = list.bytes;
+            int current = b == 0 ? -1 : blocks[(b - 1) * Postings.FIELDS + Postings.LAST];
+            int at = b == 0 ? 0 : blocks[(b - 1) * Postings.FIELDS + Postings.BYTES_END];
+            final int end = blocks[b * Postings.FIELDS + Postings.BYTES_END];
+            int n = 0;
+            while (at < end) {
+                int value = 0;
+                int shift = 0;
+                byte next;
+                do {
+                    next = bytes[at++];
+                    value |= (next & 0x7F) << shift;
+                    shift += 7;
+                } while (next < 0);
+                current += value;
+                ordinals[n] = current;
+
+                value = 0;
+                shift = 0;
+                do {
+                    next = bytes[at++];
+                    value |= (next & 0x7F) << shift;
+                    shift += 7;
+                } while (next < 0);
+                tfs[n++] = value;
+            }
+            block = b;
+            position = 0;
+            assert n > 0 && ordinals[n - 1] == blocks[b * Postings.FIELDS + Postings.LAST];
+        }
+    }
+}
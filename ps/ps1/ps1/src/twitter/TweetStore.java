@@ -0,0 +1,365 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A mutable, append-only batch of tweets stored column by column.
+ * <p>
+ * Instead of a list of Tweet objects, a TweetStore keeps one primitive array
+ * per field: ids, timestamps as nanoseconds since the epoch, and authors as
+ * int ids into a case-folded author dictionary. Texts share one Latin-1 byte
+ * buffer, addressed by offsets; the rare text with a character outside
+ * Latin-1 is kept as a String on the side.
+ * <p>
+ * Tweets are addressed by ordinal, their position in insertion order. The
+ * query methods mirror Filter and Extract but run straight on the columns and
+ * return ordinals in increasing order, so results keep the input order;
+ * get(int[]) turns them back into tweets.
+ * <p>
+ * Since authors are folded, a Tweet rebuilt by get() has its author in lower
+ * case, which is the same username by Tweet.getAuthor()'s spec.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TweetStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size = 0;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] epochNanos = new long[INITIAL_CAPACITY];
+    private int[] authors = new int[INITIAL_CAPACITY];
+    private final UsernameSet authorNames = new UsernameSet();
+    private int[] textOffsets = new int[INITIAL_CAPACITY + 1];
+    private byte[] textBytes = new byte[INITIAL_CAPACITY * 64];
+    private String[] wideTexts = null;
+
+    // Abstraction function:
+    //   AF(size, ids, epochNanos, authors, authorNames, text*) = the list of
+    //     tweets t_0 .. t_(size-1) where t_i has id ids[i], timestamp epochNanos[i],
+    //     author authorNames.get(authors[i]) and text
+    //       wideTexts[i]                                 if wideTexts != null and wideTexts[i] != null
+    //       textBytes[textOffsets[i] .. textOffsets[i+1]) decoded as Latin-1, otherwise
+    // Rep invariant:
+    //   0 <= size <= ids.length = epochNanos.length = authors.length = textOffsets.length - 1
+    //   0 <= authors[i] < authorNames.size() for i < size
+    //   textOffsets[0] = 0, textOffsets is nondecreasing on [0, size], textOffsets[size] <= textBytes.length
+    //   wideTexts = null or wideTexts.length = ids.length
+    //   wideTexts[i] != null => textOffsets[i] = textOffsets[i+1]
+    // Safety from rep exposure:
+    //   all fields are private; arrays are never returned, only copies or
+    //   freshly built results.
+
+    private void checkRep() {
+        assert size >= 0 && size <= ids.length;
+        assert ids.length == epochNanos.length && ids.length == authors.length;
+        assert textOffsets.length == ids.length + 1;
+        assert textOffsets[0] == 0 && textOffsets[size] <= textBytes.length;
+        assert wideTexts == null || wideTexts.length == ids.length;
+    }
+
+    /**
+     * Make an empty store.
+     */
+    public TweetStore() {
+        checkRep();
+    }
+
+    /**
+     * Make a store holding a list of tweets.
+     *
+     * @param tweets tweets to store, in order; not modified by this method
+     * @return a store whose ordinal i holds tweets.get(i)
+     */
+    public static TweetStore of(List<Tweet> tweets) {
+        TweetStore store = new TweetStore();
+        store.ensureCapacity(tweets.size());
+        for (Tweet tweet : tweets) {
+            store.add(tweet);
+        }
+        return store;
+    }
+
+    /**
+     * Append a tweet.
+     *
+     * @param tweet tweet to append; its timestamp must lie between the years
+     *              1677 and 2262
+     * @return the ordinal of the appended tweet
+     */
+    public int add(Tweet tweet) {
+        ensureCapacity(size + 1);
+        final int ordinal = size;
+        ids[ordinal] = tweet.getId();
+        epochNanos[ordinal] = EpochNanos.of(tweet.getTimestamp());
+        authors[ordinal] = authorNames.add(tweet.getAuthor());
+
+        String text = tweet.getText();
+        int start = textOffsets[ordinal];
+        if (isLatin1(text)) {
+            if (start + text.length() > textBytes.length) {
+                textBytes = Arrays.copyOf(textBytes, Math.max(textBytes.length * 2, start + text.length()));
+            }
+            for (int i = 0; i < text.length(); i++) {
+                textBytes[start + i] = (byte) text.charAt(i);
+            }
+            textOffsets[ordinal + 1] = start + text.length();
+        } else {
+            if (wideTexts == null) {
+                wideTexts = new String[ids.length];
+            }
+            wideTexts[ordinal] = text;
+            textOffsets[ordinal + 1] = start;
+        }
+        size++;
+        checkRep();
+        return ordinal;
+    }
+
+    /**
+     * @return number of tweets in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param ordinal tweet ordinal, 0 <= ordinal < size()
+     * @return id of that tweet
+     */
+    public long id(int ordinal) {
+        checkOrdinal(ordinal);
+        return ids[ordinal];
+    }
+
+    /**
+     * @param ordinal tweet ordinal, 0 <= ordinal < size()
+     * @return timestamp of that tweet, in nanoseconds since the epoch
+     */
+    public long epochNanos(int ordinal) {
+        checkOrdinal(ordinal);
+        return epochNanos[ordinal];
+    }
+
+    /**
+     * @param ordinal tweet ordinal, 0 <= ordinal < size()
+     * @return id of that tweet's author in the author dictionary
+     */
+    public int authorId(int ordinal) {
+        checkOrdinal(ordinal);
+        return authors[ordinal];
+    }
+
+    /**
+     * @param ordinal tweet ordinal, 0 <= ordinal < size()
+     * @return that tweet's author, in lower case
+     */
+    public String author(int ordinal) {
+        checkOrdinal(ordinal);
+        return authorNames.get(authors[ordinal]);
+    }
+
+    /**
+     * @param ordinal tweet ordinal, 0 <= ordinal < size()
+     * @return that tweet's text
+     */
+    public String text(int ordinal) {
+        checkOrdinal(ordinal);
+        if (isWide(ordinal)) {
+            return wideTexts[ordinal];
+        }
+        int start = textOffsets[ordinal];
+        return new String(textBytes, start, textOffsets[ordinal + 1] - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @param ordinal tweet ordinal, 0 <= ordinal < size()
+     * @return the tweet at that ordinal, with its author in lower case
+     */
+    public Tweet get(int ordinal) {
+        return new Tweet(id(ordinal), author(ordinal), text(ordinal), EpochNanos.toInstant(epochNanos[ordinal]));
+    }
+
+    /**
+     * @param ordinals tweet ordinals, each 0 <= ordinal < size()
+     * @return the tweets at those ordinals, in the same order
+     */
+    public List<Tweet> get(int[] ordinals) {
+        List<Tweet> tweets = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            tweets.add(get(ordinal));
+        }
+        return tweets;
+    }
+
+    /**
+     * Column form of Filter.writtenBy.
+     *
+     * @param username Twitter username, compared case-insensitively
+     * @return ordinals of all and only the tweets written by username, in increasing order
+     */
+    public int[] writtenBy(String username) {
+        int author = authorNames.indexOf(username);
+        if (author < 0) {
+            return new int[0];
+        }
+        IntList result = new IntList();
+        for (int i = 0; i < size; i++) {
+            if (authors[i] == author) {
+                result.add(i);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Column form of Filter.inTimespan.
+     *
+     * @param timespan timespan, including its endpoints
+     * @return ordinals of all and only the tweets sent during timespan, in increasing order
+     */
+    public int[] inTimespan(Timespan timespan) {
+        long start = EpochNanos.saturated(timespan.getStart());
+        long end = EpochNanos.saturated(timespan.getEnd());
+        IntList result = new IntList();
+        for (int i = 0; i < size; i++) {
+            if (epochNanos[i] >= start && epochNanos[i] <= end) {
+                result.add(i);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Column form of Filter.containing.
+     *
+     * @param words words to search for; a word is a nonempty sequence of nonspace characters
+     * @return ordinals of all and only the tweets whose text, split into words at
+     * space characters, includes at least one of the words, compared
+     * case-insensitively; in increasing order
+     */
+    public int[] containing(List<String> words) {
+        char[][] folded = Words.foldAll(words);
+        IntList result = new IntList();
+        Latin1Text text = new Latin1Text();
+        for (int i = 0; i < size; i++) {
+            CharSequence row = isWide(i) ? wideTexts[i] : text.reset(textBytes, textOffsets[i], textOffsets[i + 1]);
+            if (Words.containsAny(row, folded)) {
+                result.add(i);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Column form of Extract.getTimespan.
+     *
+     * @return the minimum-length interval containing every tweet's timestamp,
+     * or null if the store is empty
+     */
+    public Timespan getTimespan() {
+        if (size == 0) {
+            return null;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, epochNanos[i]);
+            max = Math.max(max, epochNanos[i]);
+        }
+        return new Timespan(EpochNanos.toInstant(min), EpochNanos.toInstant(max));
+    }
+
+    /**
+     * Column form of Extract.getMentionedUsers.
+     *
+     * @return the set of usernames mentioned in the tweets' texts, in lower case
+     */
+    public Set<String> getMentionedUsers() {
+        UsernameSet mentioned = new UsernameSet();
+        MentionScanner.Sink sink = mentioned::add;
+        Latin1Text text = new Latin1Text();
+        for (int i = 0; i < size; i++) {
+            MentionScanner.scan(isWide(i) ? wideTexts[i] : text.reset(textBytes, textOffsets[i], textOffsets[i + 1]), sink);
+        }
+        return mentioned.toSet();
+    }
+
+    private boolean isWide(int ordinal) {
+        return wideTexts != null && wideTexts[ordinal] != null;
+    }
+
+    private void checkOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("no tweet at ordinal " + ordinal);
+        }
+    }
+
+    /* Grow the per-tweet columns to hold at least capacity tweets. */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        epochNanos = Arrays.copyOf(epochNanos, newCapacity);
+        authors = Arrays.copyOf(authors, newCapacity);
+        textOffsets = Arrays.copyOf(textOffsets, newCapacity + 1);
+        if (wideTexts != null) {
+            wideTexts = Arrays.copyOf(wideTexts, newCapacity);
+        }
+    }
+
+    private static boolean isLatin1(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A reusable CharSequence view of a Latin-1 byte range.
+     */
+    private static class Latin1Text implements CharSequence {
+
+        private byte[] bytes;
+        private int start;
+        private int length;
+
+        Latin1Text reset(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.length = end - start;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[start + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new String(bytes, start + from, to - from, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+
+/**
+ * Reads tweets lazily from the same JSON format as TweetReader: an array of
+ * tweet objects with the fields "id", "text", "created_at" and the author's
+ * "user.screen_name" (either as that literal key or as "screen_name" inside a
+ * nested "user" object).
+ * <p>
+ * Unlike TweetReader, which builds the whole JSON tree and then a map per
+ * tweet, this reader pulls parser events one at a time, keeps only those four
+ * fields and skips everything else. Only the tweet being read is held in
+ * memory, so heap use does not grow with the size of the feed.
+ * <p>
+ * A TweetStreamReader is a one-shot Iterator; it is not thread-safe. Close
+ * it to release the underlying reader.
+ */
+public class TweetStreamReader implements Iterator<Tweet>, Closeable {
+
+    private final JsonParser parser;
+    private Tweet pending = null;
+    private boolean finished = false;
+
+    // Abstraction function:
+    //   AF(parser, pending, finished) = the sequence of tweets not yet returned:
+    //     pending (if not null) followed by the tweets left in the parser's
+    //     array, or nothing more if finished
+    // Rep invariant:
+    //   finished => pending = null
+    // Safety from rep exposure:
+    //   all fields are private; Tweets are immutable.
+
+    private void checkRep() {
+        assert !finished || pending == null;
+    }
+
+    /**
+     * Make a reader over a JSON array of tweets.
+     *
+     * @param reader source of the JSON text; closed when this reader is closed,
+     *               or before this constructor throws
+     * @throws JsonException if the input does not start with a JSON array
+     */
+    public TweetStreamReader(Reader reader) {
+        this.parser = Json.createParser(reader);
+        try {
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                throw new JsonException("expected a JSON array of tweets");
+            }
+        } catch (RuntimeException re) {
+            try {
+                parser.close(); // nobody else can close the reader
+            } catch (RuntimeException closing) {
+                re.addSuppressed(closing);
+            }
+            throw re;
+        }
+        checkRep();
+    }
+
+    /**
+     * Make a reader over the tweets served by a web server.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @return a reader over the server's response
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static TweetStreamReader fromWeb(URL url) throws IOException {
+        return new TweetStreamReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true iff there is another tweet to read
+     * @throws JsonException if the input is not a well-formed array of tweets
+     */
+    @Override
+    public boolean hasNext() {
+        if (pending == null && !finished) {
+            Fields fields = readNext();
+            pending = fields == null ? null : fields.toTweet();
+            finished = pending == null;
+        }
+        checkRep();
+        return pending != null;
+    }
+
+    /**
+     * @return the next tweet in the input
+     * @throws NoSuchElementException if there are no more tweets
+     * @throws JsonException          if the input is not a well-formed array of tweets
+     */
+    @Override
+    public Tweet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tweet tweet = pending;
+        pending = null;
+        return tweet;
+    }
+
+    /**
+     * @return a spliterator over the remaining tweets, in input order.
+     * Consuming it consumes this reader.
+     */
+    public Spliterator<Tweet> spliterator() {
+        return Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * @return a sequential stream over the remaining tweets, in input order;
+     * closing the stream closes this reader
+     */
+    public Stream<Tweet> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        });
+    }
+
+    /**
+     * Close the underlying reader.
+     */
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        pending = null;
+        try {
+            parser.close();
+        } catch (JsonException je) {
+            throw je.getCause() instanceof IOException ? (IOException) je.getCause() : new IOException(je);
+        }
+    }
+
+    /*
+     * Read the fields of the next tweet without decoding its timestamp, for
+     * TweetIngestPipeline, which decodes them on other threads. Must not be
+     * mixed with hasNext() and next().
+     *
+     * @return the fields of the next tweet, or null at the end of the array
+     */
+    Fields nextFields() {
+        if (finished) {
+            return null;
+        }
+        Fields fields = readNext();
+        finished = fields == null;
+        checkRep();
+        return fields;
+    }
+
+    /* @return the fields of the next tweet in the array, or null at the end of the array */
+    private Fields readNext() {
+        JsonParser.Event event = parser.next();
+        if (event == JsonParser.Event.END_ARRAY) {
+            return null;
+        }
+        if (event != JsonParser.Event.START_OBJECT) {
+            throw new JsonException("expected a tweet object but found " + event);
+        }
+        return readTweet();
+    }
+
+    /* Read the rest of a tweet object whose START_OBJECT was just consumed. */
+    private Fields readTweet() {
+        long id = 0;
+        boolean hasId = false;
+        String screenName = null;
+        String text = null;
+        String createdAt = null;
+
+        JsonParser.Event event;
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT) {
+            String key = parser.getString();
+            event = parser.next();
+            switch (key) {
+                case "id":
+                    id = event == JsonParser.Event.VALUE_NUMBER ? parser.getLong() : Long.parseLong(stringValue(key, event));
+                    hasId = true;
+                    break;
+                case "text":
+                    text = stringValue(key, event);
+                    break;
+                case "created_at":
+                    createdAt = stringValue(key, event);
+                    break;
+                case "user.screen_name":
+                    screenName = stringValue(key, event);
+                    break;
+                case "user":
+                    if (event == JsonParser.Event.START_OBJECT) {
+                        String nested = readScreenName();
+                        screenName = nested != null ? nested : screenName;
+                    } else {
+                        skipValue(event);
+                    }
+                    break;
+                default:
+                    skipValue(event);
+            }
+        }
+
+        if (!hasId || screenName == null || text == null || createdAt == null) {
+            throw new JsonException("tweet is missing one of id, user.screen_name, text, created_at");
+        }
+        return new Fields(id, screenName, text, createdAt);
+    }
+
+    /* Read the rest of a "user" object, returning its screen_name if present. */
+    private String readScreenName() {
+        String screenName = null;
+        JsonParser.Event event;
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT) {
+            String key = parser.getString();
+            event = parser.next();
+            if (key.equals("screen_name")) {
+                screenName = stringValue(key, event);
+            } else {
+                skipValue(event);
+            }
+        }
+        return screenName;
+    }
+
+    /* Skip a value whose first event was just consumed, including any nested values. */
+    private void skipValue(JsonParser.Event first) {
+        if (first != JsonParser.Event.START_OBJECT && first != JsonParser.Event.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            switch (parser.next()) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /* @return the current value as a string, which must be a JSON string or number */
+    private String stringValue(String key, JsonParser.Event event) {
+        if (event != JsonParser.Event.VALUE_STRING && event != JsonParser.Event.VALUE_NUMBER) {
+            throw new JsonException("expected a string for \"" + key + "\" but found " + event);
+        }
+        return parser.getString();
+    }
+
+    /**
+     * The fields of one tweet as they appear in the input, before the
+     * timestamp is decoded.
+     */
+    static final class Fields {
+        private final long id;
+        private final String screenName;
+        private final String text;
+        private final String createdAt;
+
+        Fields(long id, String screenName, String text, String createdAt) {
+            this.id = id;
+            this.screenName = screenName;
+            this.text = text;
+            this.createdAt = createdAt;
+        }
+
+        /* @return the tweet these fields describe */
+        Tweet toTweet() {
+            return new Tweet(id, screenName, text, CreatedAt.parse(createdAt));
+        }
+    }
+}
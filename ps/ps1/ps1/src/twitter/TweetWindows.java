@@ -0,0 +1,384 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * A mutable engine that computes windowed statistics over a stream of tweets,
+ * keyed by Tweet.getTimestamp().
+ * <p>
+ * Windows are `size` long and start every `slide`; tumbling windows are the
+ * special case slide = size. Windows are aligned to the epoch, so a window
+ * [start, start + size) always has start a multiple of slide. For each window
+ * the engine reports the tweet volume, the active authors and, for each
+ * mentioned user, the number of tweets mentioning them. Usernames are folded
+ * to lower case.
+ * <p>
+ * Time is cut into panes of length `slide`, each holding the aggregates of
+ * its own tweets, and a window is the sum of size/slide consecutive panes.
+ * The engine keeps the aggregates of the current window: when a window
+ * closes, its oldest pane is retracted and the next pane is added, so no
+ * window is ever recomputed from scratch.
+ * <p>
+ * Tweets may arrive out of order by up to `lateness`. The watermark is the
+ * latest timestamp seen minus lateness; a window is closed and passed to the
+ * listener once its end is at or before the watermark, and a tweet older than
+ * the watermark is dropped, since every window it belongs to may already be
+ * closed. Windows with no tweets are not reported.
+ * <p>
+ * Usernames are canonicalized through a UsernamePool owned by the engine. As
+ * windows close the pool is replaced once it holds many more names than the
+ * open window, so names that only appeared in retracted panes are not kept.
+ * <p>
+ * Not thread-safe: tweets must be ingested from one thread at a time.
+ */
+public class TweetWindows {
+
+    /* The pool is replaced once it has more than this many names per name in the open window... */
+    private static final int POOL_SLACK = 4;
+    /* ...and more than this many names in all. */
+    private static final int MIN_POOL_SIZE = 1024;
+
+    private final long slideNanos;
+    private final int panesPerWindow;
+    private final long latenessNanos;
+    private final Consumer<Window> listener;
+
+    private final NavigableMap<Long, Tally> panes = new TreeMap<>();
+    private final Tally current = new Tally();
+    private final List<String> mentioned = new ArrayList<>();
+    private UsernamePool pool = new UsernamePool();
+    private boolean started = false;
+    private long firstPane;
+    private long watermark = Long.MIN_VALUE;
+    private long dropped = 0;
+
+    // Abstraction function:
+    //   AF(...) = a windowed view of the accepted tweets, in which the window
+    //     starting at pane p (time p * slideNanos) holds the tweets of panes
+    //     [p, p + panesPerWindow); windows whose end is at or before
+    //     `watermark` have been passed to listener, the window starting at
+    //     firstPane is the open window whose aggregates are `current`, and
+    //     `dropped` tweets arrived too late to be counted
+    // Rep invariant:
+    //   slideNanos > 0, panesPerWindow >= 1, latenessNanos >= 0
+    //   if started: every key of panes is >= firstPane, and
+    //     current = the sum of panes in [firstPane, firstPane + panesPerWindow)
+    //   firstPane * slideNanos <= watermark once started, so no accepted tweet
+    //     falls before the open window
+    //   every count in a Tally is positive
+    //   usernames in Tallies are folded to lower case; they come from pool or
+    //     an earlier pool, so they are compared by equals(), and by identity
+    //     only within one ingest, where they all come from the current pool
+    // Safety from rep exposure:
+    //   all fields are private; Windows handed to the listener and returned
+    //   by openWindow() are immutable copies.
+
+    private void checkRep() {
+        assert slideNanos > 0 && panesPerWindow >= 1 && latenessNanos >= 0;
+        assert !started || panes.isEmpty() || panes.firstKey() >= firstPane;
+        assert current.tweets >= 0;
+    }
+
+    private TweetWindows(Duration size, Duration slide, Duration lateness, Consumer<Window> listener) {
+        long sizeNanos = size.toNanos();
+        this.slideNanos = slide.toNanos();
+        if (slideNanos <= 0 || sizeNanos <= 0) {
+            throw new IllegalArgumentException("window size and slide must be positive");
+        }
+        if (sizeNanos % slideNanos != 0) {
+            throw new IllegalArgumentException("window size " + size + " is not a multiple of slide " + slide);
+        }
+        if (lateness.isNegative()) {
+            throw new IllegalArgumentException("lateness must be nonnegative: " + lateness);
+        }
+        this.panesPerWindow = Math.toIntExact(sizeNanos / slideNanos);
+        this.latenessNanos = lateness.toNanos();
+        this.listener = listener;
+        checkRep();
+    }
+
+    /**
+     * Make an engine for back-to-back windows, such as per-minute counts.
+     *
+     * @param size     length of each window, positive
+     * @param lateness how far out of order a tweet may arrive, nonnegative
+     * @param listener called with each window once it closes, in time order
+     * @return an engine with no tweets
+     */
+    public static TweetWindows tumbling(Duration size, Duration lateness, Consumer<Window> listener) {
+        return new TweetWindows(size, size, lateness, listener);
+    }
+
+    /**
+     * Make an engine for overlapping windows, such as the last hour updated
+     * every minute.
+     *
+     * @param size     length of each window, a positive multiple of slide
+     * @param slide    time between the starts of consecutive windows, positive
+     * @param lateness how far out of order a tweet may arrive, nonnegative
+     * @param listener called with each window once it closes, in time order
+     * @return an engine with no tweets
+     */
+    public static TweetWindows sliding(Duration size, Duration slide, Duration lateness, Consumer<Window> listener) {
+        return new TweetWindows(size, slide, lateness, listener);
+    }
+
+    /**
+     * Add a tweet to the stream, and close every window that its timestamp
+     * moves the watermark past.
+     *
+     * @param tweet tweet to ingest; its timestamp must lie between the years
+     *              1677 and 2262
+     * @return true if the tweet was counted, false if it was dropped because
+     * it is older than the watermark
+     */
+    public boolean ingest(Tweet tweet) {
+        final long nanos = EpochNanos.of(tweet.getTimestamp());
+        if (nanos < watermark) {
+            dropped++;
+            return false;
+        }
+        if (!started) {
+            started = true;
+            // the first window that could still receive a tweet `lateness` older than this one
+            firstPane = Math.floorDiv(nanos - latenessNanos, slideNanos) - panesPerWindow + 1;
+        }
+        long pane = Math.floorDiv(nanos, slideNanos);
+        Tally tally = panes.get(pane);
+        if (tally == null) {
+            tally = new Tally();
+            panes.put(pane, tally);
+        }
+
+        String author = pool.canonical(tweet.getAuthor());
+        mentioned.clear();
+        MentionScanner.scan(tweet.getText(), (text, start, end) -> {
+            String user = pool.canonical(text, start, end);
+            if (!containsInstance(mentioned, user)) {
+                mentioned.add(user);
+            }
+        });
+        tally.add(author, mentioned);
+        if (pane < firstPane + panesPerWindow) {
+            current.add(author, mentioned);
+        }
+
+        advance(Math.max(watermark, nanos - latenessNanos));
+        checkRep();
+        return true;
+    }
+
+    /**
+     * End the stream: close and report every remaining window. Tweets
+     * ingested afterwards are dropped.
+     */
+    public void flush() {
+        advance(Long.MAX_VALUE);
+        checkRep();
+    }
+
+    /**
+     * @return the window that is currently filling, with the aggregates of
+     * the tweets accepted into it so far, or null if no tweet has been
+     * accepted yet or the stream has been flushed
+     */
+    public Window openWindow() {
+        return started && watermark != Long.MAX_VALUE ? snapshot() : null;
+    }
+
+    /**
+     * @return number of tweets dropped for arriving after the watermark
+     */
+    public long droppedCount() {
+        return dropped;
+    }
+
+    /* Move the watermark forward, closing every window that ends at or before it. */
+    private void advance(long newWatermark) {
+        watermark = newWatermark;
+        if (!started) {
+            return;
+        }
+        final long watermarkPane = Math.floorDiv(watermark, slideNanos);
+        while (firstPane + panesPerWindow <= watermarkPane && (current.tweets > 0 || !panes.isEmpty())) {
+            if (current.tweets > 0) {
+                listener.accept(snapshot());
+            }
+            // retract the oldest pane and add the pane that slides in
+            Tally leaving = panes.remove(firstPane);
+            if (leaving != null) {
+                current.removeAll(leaving);
+            }
+            firstPane++;
+            Tally entering = panes.get(firstPane + panesPerWindow - 1);
+            if (entering != null) {
+                current.addAll(entering);
+            }
+            if (current.tweets == 0) {
+                // skip the empty windows up to the next pane, without passing the watermark
+                long next = panes.isEmpty() ? watermarkPane : Math.min(panes.firstKey(), watermarkPane);
+                long jump = next - panesPerWindow + 1;
+                if (jump > firstPane) {
+                    firstPane = jump;
+                    for (Tally tally : panes.subMap(firstPane, firstPane + panesPerWindow).values()) {
+                        current.addAll(tally);
+                    }
+                }
+            }
+        }
+        final int live = current.authors.size() + current.mentions.size();
+        if (pool.size() > Math.max(MIN_POOL_SIZE, POOL_SLACK * live)) {
+            // names still in the panes stay valid; the new pool re-learns those still in use
+            pool = new UsernamePool();
+        }
+    }
+
+    /* @return number of names in the engine's username pool */
+    int poolSize() {
+        return pool.size();
+    }
+
+    /* @return true iff names holds this very instance; canonical names are equal iff identical */
+    private static boolean containsInstance(List<String> names, String name) {
+        for (String other : names) {
+            if (other == name) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Window snapshot() {
+        Map<String, Integer> mentionCounts = new HashMap<>();
+        current.mentions.forEach((user, count) -> mentionCounts.put(user, count[0]));
+        return new Window(EpochNanos.toInstant(firstPane * slideNanos),
+            EpochNanos.toInstant((firstPane + panesPerWindow) * slideNanos),
+            current.tweets, current.authors.keySet(), mentionCounts);
+    }
+
+    /**
+     * Aggregates of a bag of tweets, which can be added and retracted.
+     */
+    private static class Tally {
+        private int tweets = 0;
+        private final Map<String, int[]> authors = new HashMap<>();
+        private final Map<String, int[]> mentions = new HashMap<>();
+
+        void add(String author, List<String> mentioned) {
+            tweets++;
+            increment(authors, author, 1);
+            for (String user : mentioned) {
+                increment(mentions, user, 1);
+            }
+        }
+
+        void addAll(Tally other) {
+            tweets += other.tweets;
+            other.authors.forEach((user, count) -> increment(authors, user, count[0]));
+            other.mentions.forEach((user, count) -> increment(mentions, user, count[0]));
+        }
+
+        void removeAll(Tally other) {
+            tweets -= other.tweets;
+            other.authors.forEach((user, count) -> increment(authors, user, -count[0]));
+            other.mentions.forEach((user, count) -> increment(mentions, user, -count[0]));
+        }
+
+        /* Add delta to counts[user], removing the entry when it drops to 0. */
+        private static void increment(Map<String, int[]> counts, String user, int delta) {
+            int[] count = counts.get(user);
+            if (count == null) {
+                counts.put(user, new int[] {delta});
+            } else if ((count[0] += delta) == 0) {
+                counts.remove(user);
+            }
+        }
+    }
+
+    /**
+     * An immutable summary of the tweets in one window.
+     */
+    public static class Window {
+
+        private final Instant start;
+        private final Instant end;
+        private final int tweetCount;
+        private final Set<String> activeAuthors;
+        private final Map<String, Integer> mentionCounts;
+
+        // Abstraction function:
+        //   AF(start, end, tweetCount, activeAuthors, mentionCounts) = the
+        //     summary of the tweetCount tweets sent in [start, end), written by
+        //     activeAuthors, in which mentionCounts.get(u) tweets mention u
+        // Rep invariant:
+        //   start < end, tweetCount >= 0, every mention count is in [1, tweetCount]
+        // Safety from rep exposure:
+        //   all fields are private and final; the collections are unmodifiable copies.
+
+        Window(Instant start, Instant end, int tweetCount, Set<String> activeAuthors,
+               Map<String, Integer> mentionCounts) {
+            this.start = start;
+            this.end = end;
+            this.tweetCount = tweetCount;
+            this.activeAuthors = Collections.unmodifiableSet(new HashSet<>(activeAuthors));
+            this.mentionCounts = Collections.unmodifiableMap(mentionCounts);
+            assert start.isBefore(end) && tweetCount >= 0;
+        }
+
+        /**
+         * @return start of the window, inclusive
+         */
+        public Instant getStart() {
+            return start;
+        }
+
+        /**
+         * @return end of the window, exclusive
+         */
+        public Instant getEnd() {
+            return end;
+        }
+
+        /**
+         * @return number of tweets sent in the window
+         */
+        public int getTweetCount() {
+            return tweetCount;
+        }
+
+        /**
+         * @return the authors of the tweets in the window, in lower case
+         */
+        public Set<String> getActiveAuthors() {
+            return activeAuthors;
+        }
+
+        /**
+         * @return every user mentioned in the window, in lower case, mapped to
+         * the number of tweets in the window that mention them
+         */
+        public Map<String, Integer> getMentionCounts() {
+            return mentionCounts;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + " .. " + end + ") " + tweetCount + " tweets by "
+                + activeAuthors.size() + " authors, " + mentionCounts.size() + " users mentioned";
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A growing, thread-safe pool of canonical usernames.
+ * <p>
+ * Usernames are case-insensitive (see Tweet.getAuthor()), so the pool folds
+ * each name to lower case (ASCII only, as Twitter usernames are ASCII) and
+ * keeps one String instance and one dense int id per folded name. Looking up
+ * a name that is already pooled, even as a range of a larger text, hashes
+ * and compares it in place without allocating anything, so any number of
+ * tweets mentioning the same user share one String. Two canonical names are
+ * the same user iff they are the same reference, or iff their ids are equal.
+ * <p>
+ * Lookups of pooled names take no lock; adding a new name locks the pool.
+ * Names are never removed, so shared() suits long-lived processes whose user
+ * population is bounded, such as a feed of one community.
+ */
+public final class UsernamePool {
+
+    private static final UsernamePool SHARED = new UsernamePool();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile AtomicReferenceArray<Entry> slots = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private volatile String[] names = new String[INITIAL_CAPACITY / 2];
+    private volatile int size = 0;
+
+    // Abstraction function:
+    //   AF(slots, names, size) = the set of folded usernames names[0..size),
+    //     where names[id] has id `id`, indexed by the open-addressing table slots
+    // Rep invariant:
+    //   slots.length() is a power of two and more than twice size
+    //   names.length >= size; names[0..size) are distinct, folded, non-null
+    //   for each id < size, exactly one slot holds Entry(names[id], id), found
+    //     by linear probing from UsernameSet.hash(names[id])
+    // Safety from rep exposure:
+    //   all fields are private; only immutable Strings and ints are returned.
+    // Thread safety argument:
+    //   all writes happen while holding the lock on this. A writer stores a
+    //     new name into `names` (growing it first if needed) before it
+    //     publishes the name's Entry with a volatile slot write, so a reader
+    //     that finds an Entry also sees names[entry.id].
+    //   Entry is immutable, so a published Entry is seen fully constructed.
+    //   growing the table builds a new array and publishes it with a volatile
+    //     write; a reader still probing the old array sees every entry added
+    //     before the grow, and a miss is re-checked under the lock before
+    //     adding, so no name is ever added twice.
+
+    private void checkRep() {
+        assert Integer.bitCount(slots.length()) == 1 && slots.length() > 2 * size;
+        assert names.length >= size;
+    }
+
+    /**
+     * Make an empty pool.
+     */
+    public UsernamePool() {
+        checkRep();
+    }
+
+    /**
+     * @return the pool shared by the whole package
+     */
+    public static UsernamePool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return the canonical, lower-case instance of username, adding it to
+     * the pool if needed
+     */
+    public String canonical(CharSequence username) {
+        return canonical(username, 0, username.length());
+    }
+
+    /**
+     * @param text  text containing a username
+     * @param start index of the username's first character
+     * @param end   index just past the username
+     * @return the canonical, lower-case instance of text[start..end), adding
+     * it to the pool if needed
+     */
+    public String canonical(CharSequence text, int start, int end) {
+        return entry(text, start, end).name;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return the id of username, ignoring case, adding it to the pool if
+     * needed; ids are dense, starting at 0, and never change
+     */
+    public int id(CharSequence username) {
+        return id(username, 0, username.length());
+    }
+
+    /**
+     * @param text  text containing a username
+     * @param start index of the username's first character
+     * @param end   index just past the username
+     * @return the id of text[start..end), ignoring case, adding it to the pool
+     * if needed
+     */
+    public int id(CharSequence text, int start, int end) {
+        return entry(text, start, end).id;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return the id of username, ignoring case, or -1 if it is not in the pool
+     */
+    public int indexOf(CharSequence username) {
+        Entry entry = find(slots, username, 0, username.length(), UsernameSet.hash(username, 0, username.length()));
+        return entry == null ? -1 : entry.id;
+    }
+
+    /**
+     * @param id a username id, 0 <= id < size()
+     * @return the canonical username with that id
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no username with id " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * @return number of distinct usernames in the pool
+     */
+    public int size() {
+        return size;
+    }
+
+    private Entry entry(CharSequence text, int start, int end) {
+        int hash = UsernameSet.hash(text, start, end);
+        Entry entry = find(slots, text, start, end, hash);
+        return entry != null ? entry : add(text, start, end, hash);
+    }
+
+    /* @return the entry for text[start..end) in table, or null if absent */
+    private static Entry find(AtomicReferenceArray<Entry> table, CharSequence text, int start, int end, int hash) {
+        int mask = table.length() - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            Entry entry = table.get(slot);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.hash == hash && UsernameSet.equalsFolded(entry.name, text, start, end)) {
+                return entry;
+            }
+        }
+    }
+
+    private synchronized Entry add(CharSequence text, int start, int end, int hash) {
+        Entry existing = find(slots, text, start, end, hash);
+        if (existing != null) {
+            return existing; // added by another thread since our lock-free miss
+        }
+        if (2 * (size + 1) >= slots.length()) {
+            grow();
+        }
+        int id = size;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        Entry entry = new Entry(UsernameSet.fold(text, start, end), id, hash);
+        names[id] = entry.name;
+        insert(slots, entry);
+        size = id + 1;
+        checkRep();
+        return entry;
+    }
+
+    private void grow() {
+        AtomicReferenceArray<Entry> old = slots;
+        AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(old.length() * 2);
+        for (int slot = 0; slot < old.length(); slot++) {
+            Entry entry = old.get(slot);
+            if (entry != null) {
+                insert(table, entry);
+            }
+        }
+        slots = table;
+    }
+
+    private static void insert(AtomicReferenceArray<Entry> table, Entry entry) {
+        int mask = table.length() - 1;
+        int slot = entry.hash & mask;
+        while (table.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(slot, entry);
+    }
+
+    /**
+     * An immutable pooled name with its id and hash.
+     */
+    private static final class Entry {
+        private final String name;
+        private final int id;
+        private final int hash;
+
+        Entry(String name, int id, int hash) {
+            this.name = name;
+            this.id = id;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A mutable, reusable set of Twitter usernames.
+ * <p>
+ * Usernames are case-insensitive (see Tweet.getAuthor()), so every name is
+ * stored once, folded to lower case. Each distinct name gets a dense int id
+ * in insertion order, 0, 1, 2, ....
+ * <p>
+ * Names can be added straight from a range of a larger CharSequence, such as
+ * a tweet's text. Case folding is done on ASCII while hashing and comparing,
+ * so adding a name that is already present allocates nothing; only the first
+ * sighting of a name creates its String. After clear() the table keeps its
+ * capacity and can be filled again.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class UsernameSet {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(names, size) = the set {names[0], ..., names[size - 1]}, where the id
+    //                     of names[i] is i
+    // Rep invariant:
+    //   0 <= size <= names.length = hashes.length
+    //   names[0..size) are distinct, nonempty and contain no upper-case ASCII letter
+    //   hashes[i] = hash(names[i]) for i < size
+    //   slots.length is a power of two and slots.length >= 2 * size
+    //   slots[k] = 0 for an empty slot, or id + 1 for the name with that id;
+    //   every id < size appears in exactly one slot, reachable from
+    //   hash(names[id]) by linear probing without crossing an empty slot
+    // Safety from rep exposure:
+    //   all fields are private; the only objects handed out are immutable Strings.
+
+    private void checkRep() {
+        assert size >= 0 && size <= names.length;
+        assert names.length == hashes.length;
+        assert Integer.bitCount(slots.length) == 1 && slots.length >= 2 * size;
+    }
+
+    /**
+     * Make an empty set.
+     */
+    public UsernameSet() {
+        checkRep();
+    }
+
+    /**
+     * Add a username, if not already present.
+     *
+     * @param text  text containing the username
+     * @param start index of the first character of the username in text
+     * @param end   index just past the last character. Requires start < end.
+     * @return the id of text[start..end) folded to lower case
+     */
+    public int add(CharSequence text, int start, int end) {
+        assert start < end;
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && equalsFolded(names[id], text, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == names.length) {
+            grow();
+            return add(text, start, end);
+        }
+        int id = size++;
+        names[id] = fold(text, start, end);
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        return id;
+    }
+
+    /**
+     * Add a username, if not already present.
+     *
+     * @param username a nonempty username
+     * @return the id of username folded to lower case
+     */
+    public int add(CharSequence username) {
+        return add(username, 0, username.length());
+    }
+
+    /**
+     * Find a username without adding it.
+     *
+     * @param text  text containing the username
+     * @param start index of the first character of the username in text
+     * @param end   index just past the last character
+     * @return the id of text[start..end), ignoring case, or -1 if it is not in the set
+     */
+    public int indexOf(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return -1;
+        }
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && equalsFolded(names[id], text, start, end)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find a username without adding it.
+     *
+     * @param username username to look for
+     * @return the id of username, ignoring case, or -1 if it is not in the set
+     */
+    public int indexOf(CharSequence username) {
+        return indexOf(username, 0, username.length());
+    }
+
+    /**
+     * @param username username to look for
+     * @return true iff username is in the set, ignoring case
+     */
+    public boolean contains(CharSequence username) {
+        return indexOf(username) >= 0;
+    }
+
+    /**
+     * @param id a username id. Requires 0 <= id < size().
+     * @return the lower-case username with that id
+     */
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no username with id " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * @return number of distinct usernames in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every username, keeping the allocated capacity for reuse.
+     * Ids are handed out from 0 again afterwards.
+     */
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(slots, 0);
+        size = 0;
+        checkRep();
+    }
+
+    /**
+     * @return a new mutable set of all the (lower-case) usernames in this set
+     */
+    public Set<String> toSet() {
+        Set<String> set = new HashSet<>(Math.max(16, size * 4 / 3 + 1));
+        for (int i = 0; i < size; i++) {
+            set.add(names[i]);
+        }
+        return set;
+    }
+
+    /* Double the capacity and rebuild the slot table. */
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        slots = new int[capacity * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+        checkRep();
+    }
+
+    /**
+     * Fold an ASCII upper-case letter to lower case; any other char is unchanged.
+     *
+     * @param c character to fold
+     * @return the folded character
+     */
+    static char foldChar(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Hash a range of text as if it had been folded to lower case.
+     *
+     * @param text  text containing the range
+     * @param start first index of the range
+     * @param end   index just past the range
+     * @return a well-mixed hash of the folded range
+     */
+    static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + foldChar(text.charAt(i));
+        }
+        // spread the high bits down, since the slot index only uses the low bits
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Hash a range of text to 64 bits as if it had been folded to lower case,
+     * for sketches that need more hash bits than a table index.
+     *
+     * @param text  text containing the range
+     * @param start first index of the range
+     * @param end   index just past the range
+     * @return a well-mixed 64-bit hash of the folded range
+     */
+    static long hash64(CharSequence text, int start, int end) {
+        long h = 0xcbf29ce484222325L; // FNV-1a, then the MurmurHash3 finalizer to mix every bit
+        for (int i = start; i < end; i++) {
+            h = (h ^ foldChar(text.charAt(i))) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /* @return true iff name equals text[start..end) folded to lower case */
+    static boolean equalsFolded(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (name.charAt(i - start) != foldChar(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* @return text[start..end) folded to lower case */
+    static String fold(CharSequence text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = foldChar(text.charAt(i));
+        }
+        return new String(chars);
+    }
+}
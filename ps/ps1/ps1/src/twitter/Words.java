@@ -0,0 +1,134 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+
+/**
+ * Word splitting and case-insensitive word comparison, as Filter.containing()
+ * defines them: a word is a nonempty sequence of nonspace characters, bounded
+ * by space characters and the ends of the text, and words are compared
+ * ignoring case, character by character.
+ */
+final class Words {
+
+    /**
+     * Receives the words of a text.
+     */
+    interface Sink {
+
+        /**
+         * Called once per word, in the order they appear in the text.
+         *
+         * @param text  the split text
+         * @param start index of the first character of the word
+         * @param end   index just past the last character of the word
+         */
+        void word(CharSequence text, int start, int end);
+    }
+
+    private Words() {
+        // static methods only
+    }
+
+    /**
+     * Split a text into words.
+     *
+     * @param text text to split
+     * @param sink receives each word, in order
+     */
+    static void split(CharSequence text, Sink sink) {
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                sink.word(text, start, i);
+            }
+        }
+    }
+
+    /**
+     * @param text  text containing a word
+     * @param start index of the first character of the word
+     * @param end   index just past the last character of the word
+     * @return the word folded to lower case
+     */
+    static String fold(CharSequence text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param word a word
+     * @return the word folded to lower case
+     */
+    static String fold(CharSequence word) {
+        return fold(word, 0, word.length());
+    }
+
+    /**
+     * @param words words to fold
+     * @return the words folded to lower case, as char arrays, in the same order
+     */
+    static char[][] foldAll(List<String> words) {
+        char[][] folded = new char[words.size()][];
+        for (int w = 0; w < folded.length; w++) {
+            folded[w] = fold(words.get(w)).toCharArray();
+        }
+        return folded;
+    }
+
+    /**
+     * @param text   text to search
+     * @param folded words folded to lower case, as from foldAll()
+     * @return true iff some word of text equals one of the folded words, ignoring case
+     */
+    static boolean containsAny(CharSequence text, char[][] folded) {
+        if (folded.length == 0) {
+            return false;
+        }
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                for (char[] word : folded) {
+                    if (equalsFolded(text, start, i, word)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /* @return true iff text[start..end) equals word, ignoring case */
+    private static boolean equalsFolded(CharSequence text, int start, int end, char[] word) {
+        if (end - start != word.length) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (Character.toLowerCase(text.charAt(i)) != word[i - start]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
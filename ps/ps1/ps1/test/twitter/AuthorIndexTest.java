@@ -0,0 +1,58 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class AuthorIndexTest {
+
+    /*
+     * Testing strategy for AuthorIndex
+     *
+     * cover subdomain of these partitions:
+     *   partition on how tweets arrive: one batch, several batches
+     *   partition on username case: same as author, different from author
+     *   partition on writtenBy result size: 0, 1, > 1
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "@bbitdiddle see you there", d2);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers one batch; result size 0, 1
+    @Test
+    public void testWrittenByOneBatch() {
+        AuthorIndex index = AuthorIndex.of(Arrays.asList(tweet1, tweet2));
+
+        assertEquals(Collections.emptyList(), index.writtenBy("huangfy"));
+        assertEquals(Collections.singletonList(tweet2), index.writtenBy("bbitdiddle"));
+        assertEquals(2, index.authorCount());
+    }
+
+    // covers several batches; different case; result size > 1
+    @Test
+    public void testWrittenByIncremental() {
+        AuthorIndex index = AuthorIndex.of(Arrays.asList(tweet1, tweet2));
+        index.addAll(Collections.singletonList(tweet3));
+
+        assertEquals(Arrays.asList(tweet1, tweet3), index.writtenBy("ALYSSA"));
+        assertArrayEquals(new int[] {0, 2}, index.ordinalsWrittenBy("alyssa"));
+        assertEquals(3, index.size());
+    }
+
+}
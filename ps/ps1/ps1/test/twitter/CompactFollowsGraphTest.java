@@ -0,0 +1,107 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CompactFollowsGraphTest {
+
+    /*
+     * Testing strategy for CompactFollowsGraph
+     *
+     * cover subdomain of these partitions:
+     *   partition on source: map, tweets
+     *   partition on users: 0, > 0
+     *   partition on a user's edges: none, some; duplicate case variants, self-follow
+     *   partition on user: key with no follows, followed only, both
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers map source; 0 users
+    @Test
+    public void testEmpty() {
+        CompactFollowsGraph graph = CompactFollowsGraph.fromMap(new HashMap<>());
+
+        assertEquals(0, graph.userCount());
+        assertEquals(0, graph.edgeCount());
+        assertTrue(graph.toMap().isEmpty());
+    }
+
+    // covers map source; case variants, self-follow; key with no follows, followed only, both
+    @Test
+    public void testFromMap() {
+        Map<String, Set<String>> map = new LinkedHashMap<>();
+        map.put("alyssa", new HashSet<>(Arrays.asList("Bert", "bert", "ALYSSA", "ernie")));
+        map.put("Ernie", new HashSet<>(Arrays.asList("bert")));
+        map.put("cookie", Collections.<String>emptySet());
+        CompactFollowsGraph graph = CompactFollowsGraph.fromMap(map);
+
+        assertEquals(4, graph.userCount());
+        assertEquals(3, graph.edgeCount());
+        int alyssa = graph.id("Alyssa");
+        int bert = graph.id("bert");
+        int ernie = graph.id("ERNIE");
+        assertEquals("bert", graph.username(bert));
+        assertEquals(-1, graph.id("elmo"));
+        assertEquals(2, graph.followsCount(alyssa));
+        assertEquals(0, graph.followsCount(bert));
+        assertEquals(2, graph.followerCount(bert));
+        assertEquals(0, graph.followerCount(graph.id("cookie")));
+        assertEquals(new HashSet<>(Arrays.asList(alyssa, ernie)), toSet(graph.followers(bert)));
+        assertEquals(new HashSet<>(Arrays.asList(bert, ernie)), toSet(graph.follows(alyssa)));
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", new HashSet<>(Arrays.asList("bert", "ernie")));
+        expected.put("ernie", new HashSet<>(Arrays.asList("bert")));
+        expected.put("cookie", new HashSet<>());
+        assertEquals(expected, graph.toMap());
+    }
+
+    // covers tweets source; agrees with SocialNetwork.guessFollowsGraph
+    @Test
+    public void testFromTweetsMatchesGuessFollowsGraph() {
+        Random random = new Random(6005);
+        String[] names = {"alyssa", "Bert", "ernie", "Cookie", "elmo", "grover"};
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String author = names[random.nextInt(names.length)];
+            String text = "hi @" + names[random.nextInt(names.length)].toUpperCase()
+                + " and @" + names[random.nextInt(names.length)];
+            tweets.add(new Tweet(i, author, text, d1));
+        }
+        CompactFollowsGraph graph = CompactFollowsGraph.fromTweets(tweets);
+
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets), graph.toMap());
+        assertEquals(graph.toMap(), CompactFollowsGraph.fromMap(graph.toMap()).toMap());
+    }
+
+    private static Set<Integer> toSet(int[] ids) {
+        Set<Integer> set = new HashSet<>();
+        for (int id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+}
@@ -73,7 +73,7 @@ public class ExtractTest {
         Timespan timespan = Extract.getTimespan(Arrays.asList(tweet1, tweet2, tweet3));
 
         assertEquals("expected start", d1, timespan.getStart());
-        assertEquals("expected end", d3, timespan.getEnd());
+        assertEquals("expected end", d2, timespan.getEnd());
     }
 
     // covers mentioned.size = 0
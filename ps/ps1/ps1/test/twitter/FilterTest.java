@@ -100,6 +100,14 @@ public class FilterTest {
         assertTrue("expected list to contain tweet", writtenBy.contains(tweet4));
     }
 
+    // cover ans.size > 1; username differs in case from the authors
+    @Test
+    public void testWrittenByIgnoresCase() {
+        List<Tweet> writtenBy = Filter.writtenBy(Arrays.asList(tweet1, tweet2, tweet3, tweet4), "HuangFY");
+
+        assertEquals(Arrays.asList(tweet3, tweet4), writtenBy);
+    }
+
     // cover ans.size = 0
     @Test
     public void testInTimespanNoneResult() {
@@ -157,6 +165,16 @@ public class FilterTest {
         assertEquals(3, inTimespan.indexOf(tweet4));
     }
 
+    // cover ans.size > 1; timestamps on the endpoints of the timespan
+    @Test
+    public void testInTimespanIncludesEndpoints() {
+        Timespan timespan = new Timespan(d3, d4);
+
+        List<Tweet> inTimespan = Filter.inTimespan(Arrays.asList(tweet1, tweet2, tweet3, tweet4), timespan);
+
+        assertEquals(Arrays.asList(tweet3, tweet4), inTimespan);
+    }
+
     @Test
     public void testContaining() {
         List<Tweet> containing = Filter.containing(Arrays.asList(tweet1, tweet2), Arrays.asList("talk"));
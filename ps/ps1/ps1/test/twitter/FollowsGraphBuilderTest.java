@@ -0,0 +1,79 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphBuilderTest {
+
+    /*
+     * Testing strategy for FollowsGraphBuilder
+     *
+     * cover subdomain of these partitions:
+     *   partition on ingest: one tweet at a time, batches, concurrent threads
+     *   partition on mentions: none, self-mention, repeated in other case
+     *   partition on follower count: 0, 1, > 1
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers one at a time and batches; no mention, self-mention, other case; counts 0, 1, > 1
+    @Test
+    public void testIncrementalIngest() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        builder.ingest(new Tweet(1, "Alyssa", "no mentions here", d1));
+        builder.ingest(new Tweet(2, "alyssa", "@Bitdiddle @alyssa @BITDIDDLE", d1));
+        builder.ingestAll(Arrays.asList(
+            new Tweet(3, "huangfy", "@bitdiddle", d1),
+            new Tweet(4, "huangfy", "@bitdiddle again", d1)));
+
+        Map<String, Set<String>> graph = builder.snapshot();
+        assertEquals(2, graph.size());
+        assertEquals(Collections.singleton("bitdiddle"), graph.get("alyssa"));
+        assertEquals(Collections.singleton("bitdiddle"), graph.get("huangfy"));
+        assertEquals(2, builder.followerCount("BitDiddle"));
+        assertEquals(0, builder.followerCount("alyssa"));
+    }
+
+    // covers concurrent threads
+    @Test
+    public void testConcurrentIngest() throws InterruptedException {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    builder.ingest(new Tweet(i, "user" + i, "@star @user" + (i + 1), d1));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, builder.followerCount("star"));
+        assertEquals(1, builder.followerCount("user1000"));
+        assertEquals(new HashSet<>(Arrays.asList("star", "user1")), builder.snapshot().get("user0"));
+    }
+
+}
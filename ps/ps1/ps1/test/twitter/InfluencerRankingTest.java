@@ -0,0 +1,83 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class InfluencerRankingTest {
+
+    /*
+     * Testing strategy for InfluencerRanking
+     *
+     * cover subdomain of these partitions:
+     *   partition on graph.size: 0, > 0
+     *   partition on follower counts: all 0, distinct, tied
+     *   partition on k: 0, < size, >= size
+     *   partition on username case: same as graph, different from graph
+     */
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers graph.size = 0; k >= size
+    @Test
+    public void testEmpty() {
+        InfluencerRanking ranking = InfluencerRanking.of(new HashMap<>());
+
+        assertTrue(ranking.ranked().isEmpty());
+        assertTrue(ranking.topK(10).isEmpty());
+    }
+
+    // covers distinct counts, counts of 0; k = 0, k < size; different case
+    @Test
+    public void testRankedAndTopK() {
+        Map<String, Set<String>> graph = new LinkedHashMap<>();
+        graph.put("alyssa", new HashSet<>(Arrays.asList("Bert", "ernie")));
+        graph.put("ernie", new HashSet<>(Arrays.asList("bert")));
+        graph.put("cookie", Collections.<String>emptySet());
+        InfluencerRanking ranking = InfluencerRanking.of(graph);
+
+        assertEquals(Arrays.asList("bert", "ernie", "alyssa", "cookie"), ranking.ranked());
+        assertEquals(Arrays.asList("bert", "ernie"), ranking.topK(2));
+        assertTrue(ranking.topK(0).isEmpty());
+        assertEquals(2, ranking.followerCount("BERT"));
+        assertEquals(0, ranking.followerCount("nobody"));
+    }
+
+    // covers tied counts; topK agrees with a prefix of ranked
+    @Test
+    public void testTopKAgreesWithRanked() {
+        Random random = new Random(6005);
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            Set<String> follows = new HashSet<>();
+            for (int j = 0; j < 5; j++) {
+                follows.add("user" + random.nextInt(300));
+            }
+            graph.put("fan" + i, follows);
+        }
+        InfluencerRanking ranking = InfluencerRanking.of(graph);
+        List<String> ranked = ranking.ranked();
+
+        assertEquals(2300, ranked.size());
+        for (int k : new int[] {1, 10, 299, 5000}) {
+            assertEquals(ranked.subList(0, Math.min(k, ranked.size())), ranking.topK(k));
+        }
+    }
+
+}
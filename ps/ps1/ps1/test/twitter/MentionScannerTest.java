@@ -0,0 +1,78 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    /*
+     * Testing strategy for MentionScanner and UsernameSet
+     *
+     * 1. scan(text, sink)
+     *   partition on position of "@": start of text, middle, end of text
+     *   partition on char before "@": none, username char, other char
+     *   partition on number of mentions: 0, 1, > 1
+     *
+     * 2. addMentions(tweets, set)
+     *   partition on case: same name in different cases, distinct names
+     *   partition on set: fresh, reused after clear()
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 mentions; "@" at end of text; "@" after username char
+    @Test
+    public void testScanNoMention() {
+        assertEquals(Arrays.asList(), scan("bitdiddle@mit.edu says hi @"));
+    }
+
+    // covers "@" at start; "@" after other char; > 1 mentions
+    @Test
+    public void testScanMentions() {
+        assertEquals(Arrays.asList("alyssa", "Ben_B", "huang-feiyu"),
+            scan("@alyssa talk to (@Ben_B), @huang-feiyu!"));
+    }
+
+    // covers same name in different cases; fresh and reused set
+    @Test
+    public void testAddMentionsFoldsCase() {
+        List<Tweet> tweets = Arrays.asList(
+            new Tweet(1, "alyssa", "@Bitdiddle @bitdiddle", d1),
+            new Tweet(2, "bbitdiddle", "@ALYSSA hi", d1));
+        UsernameSet mentioned = new UsernameSet();
+
+        MentionScanner.addMentions(tweets, mentioned);
+        assertEquals(2, mentioned.size());
+        assertEquals("bitdiddle", mentioned.get(0));
+        assertEquals("alyssa", mentioned.get(1));
+        assertEquals(1, mentioned.indexOf("Alyssa"));
+
+        mentioned.clear();
+        MentionScanner.addMentions(tweets.subList(1, 2), mentioned);
+        assertEquals(1, mentioned.size());
+        assertEquals(-1, mentioned.indexOf("bitdiddle"));
+        assertEquals(0, mentioned.indexOf("alyssa"));
+    }
+
+    /* Collect the mentions found in text. */
+    private static List<String> scan(String text) {
+        List<String> found = new ArrayList<>();
+        MentionScanner.scan(text, (t, start, end) -> found.add(t.subSequence(start, end).toString()));
+        return found;
+    }
+
+}
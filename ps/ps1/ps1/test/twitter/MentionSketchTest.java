@@ -0,0 +1,169 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class MentionSketchTest {
+
+    /*
+     * Testing strategy for MentionSketch, HyperLogLog and CountMinSketch
+     *
+     * cover subdomain of these partitions:
+     *   partition on mentions: none, few, many
+     *   partition on case: same, different spellings of one user
+     *   partition on repeated mention in one tweet: no, yes
+     *   partition on sketches: one, merged, serialized and read back
+     *   partition on merge: same dimensions, different dimensions (rejected)
+     *   partition on serialized bytes: valid, corrupt k, Count-Min dimensions
+     *     or name length (rejected)
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers no mentions
+    @Test
+    public void testEmpty() {
+        MentionSketch sketch = new MentionSketch();
+        sketch.add(new Tweet(1, "alyssa", "no mentions here", d1));
+
+        assertEquals(0, sketch.distinctUsers());
+        assertTrue(sketch.topMentioned().isEmpty());
+        assertEquals(0, sketch.mentionCount("bert"));
+    }
+
+    // covers few mentions; different case; repeated mention in one tweet
+    @Test
+    public void testFewMentions() {
+        MentionSketch sketch = new MentionSketch();
+        sketch.add(new Tweet(1, "alyssa", "@Bert @bert @ernie", d1));
+        sketch.add(new Tweet(2, "ernie", "@BERT hi", d1));
+
+        assertEquals(2, sketch.distinctUsers());
+        assertEquals(2, sketch.mentionCount("bert"));
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("bert", 2L);
+        expected.put("ernie", 1L);
+        assertEquals(expected, sketch.topMentioned());
+        assertEquals(Arrays.asList("bert", "ernie"), new ArrayList<>(sketch.topMentioned().keySet()));
+    }
+
+    // covers many mentions; merged; serialized
+    @Test
+    public void testManyMentionsMergedAndSerialized() {
+        SyntheticTweets generator = SyntheticTweets.typical(6005, 40000);
+        List<Tweet> tweets = generator.generate(40000);
+        MentionSketch first = new MentionSketch(HyperLogLog.DEFAULT_PRECISION, 1 << 12, 5, 10);
+        MentionSketch second = new MentionSketch(HyperLogLog.DEFAULT_PRECISION, 1 << 12, 5, 10);
+        first.addAll(tweets.subList(0, 20000));
+        second.addAll(tweets.subList(20000, 40000));
+        first.merge(second);
+        MentionSketch copy = MentionSketch.fromBytes(first.toBytes());
+
+        int exact = Extract.getMentionedUsers(tweets).size();
+        assertEquals(exact, first.distinctUsers(), exact * 0.05);
+        assertEquals(first.distinctUsers(), copy.distinctUsers());
+        assertEquals(first.topMentioned(), copy.topMentioned());
+
+        Map<String, Integer> exactCounts = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            for (String user : Extract.getMentionedUsers(Arrays.asList(tweet))) {
+                exactCounts.merge(user, 1, Integer::sum);
+            }
+        }
+        // with Zipf mentions, the top users stand well clear of the sketch error
+        List<String> top = new ArrayList<>(copy.topMentioned().keySet());
+        assertEquals(10, top.size());
+        for (int rank = 0; rank < 3; rank++) {
+            assertEquals(generator.username(rank), top.get(rank));
+        }
+        for (String user : top) {
+            assertTrue(copy.mentionCount(user) >= exactCounts.get(user));
+        }
+    }
+
+    // covers merge of different dimensions: rejected, leaving the summary unchanged
+    @Test
+    public void testMergeMismatchLeavesSketchUnchanged() {
+        List<Tweet> tweets = SyntheticTweets.typical(6005, 2000).generate(2000);
+        MentionSketch sketch = new MentionSketch(10, 1 << 10, 4, 10);
+        sketch.addAll(tweets);
+        byte[] before = sketch.toBytes();
+        MentionSketch wider = new MentionSketch(10, 1 << 11, 4, 10);
+        wider.addAll(SyntheticTweets.typical(6006, 2000).generate(2000));
+        try {
+            sketch.merge(wider);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        assertArrayEquals(before, sketch.toBytes());
+    }
+
+    // covers corrupt k, Count-Min dimensions and name length: rejected without allocating
+    @Test
+    public void testCorruptBytes() {
+        MentionSketch sketch = new MentionSketch(10, 16, 2, 10);
+        sketch.add(new Tweet(1, "bert", "hi @alyssa", Instant.EPOCH));
+        byte[] bytes = sketch.toBytes();
+        int countsStart = 2 * Integer.BYTES + new HyperLogLog(10).serializedSize();
+        int nameLength = bytes.length - Integer.BYTES - "alyssa".length(); // the only name, last
+        int[][] corruptions = {
+            {Integer.BYTES, Integer.MAX_VALUE}, {Integer.BYTES, 0}, // k
+            {countsStart + Integer.BYTES, 1 << 24}, {countsStart + 2 * Integer.BYTES, 64}, // width, depth
+            {countsStart + Integer.BYTES, -16}, {countsStart + 2 * Integer.BYTES, 0},
+            {nameLength, Integer.MAX_VALUE - 8}, {nameLength, -1},
+        };
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = bytes.clone();
+            ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+            try {
+                MentionSketch.fromBytes(corrupt);
+                fail("expected IllegalArgumentException for " + Arrays.toString(corruption));
+            } catch (IllegalArgumentException iae) {
+                // expected
+            }
+        }
+        try {
+            CountMinSketch.fromBytes(Arrays.copyOfRange(bytes, countsStart, nameLength - Integer.BYTES - 1));
+            fail("expected IllegalArgumentException for a truncated sketch");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        assertEquals(sketch.topMentioned(), MentionSketch.fromBytes(bytes).topMentioned());
+    }
+
+    // covers HyperLogLog and CountMinSketch on their own, serialized
+    @Test
+    public void testSketchesAlone() {
+        HyperLogLog distinct = new HyperLogLog(12);
+        CountMinSketch counts = new CountMinSketch(1 << 10, 4);
+        for (int i = 0; i < 100000; i++) {
+            distinct.add("user" + (i % 50000));
+            counts.add(i % 3 == 0 ? "Bert" : "user" + i);
+        }
+
+        assertEquals(50000, HyperLogLog.fromBytes(distinct.toBytes()).estimate(), 50000 * 0.05);
+        CountMinSketch copy = CountMinSketch.fromBytes(counts.toBytes());
+        assertEquals(100000, copy.total());
+        assertTrue(copy.estimate("bert") >= 33334);
+        assertTrue(copy.estimate("bert") < 33334 + 1000);
+    }
+
+}
@@ -0,0 +1,159 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class NearDuplicatesTest {
+
+    /*
+     * Testing strategy for NearDuplicates
+     *
+     * cover subdomain of these partitions:
+     *   partition on tweets: 0, few, more than one parallel chunk
+     *   partition on a pair of texts: identical, different case and
+     *     punctuation, retweet of the other, different link, one word
+     *     added, one word changed (below the threshold), unrelated, both
+     *     normalize to empty (blank, punctuation, only links or "RT @x:"),
+     *     shorter than a shingle
+     *   partition on threshold: default, 1, invalid
+     *   partition on clusters: none, one, several, chained
+     */
+
+    private static final Instant T0 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final String TALK = "Rivest talk in 30 minutes, come to 32-123 for a great lecture on RSA #hype";
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets, no clusters
+    @Test
+    public void testEmpty() {
+        NearDuplicates duplicates = NearDuplicates.of(Collections.emptyList());
+        assertTrue(duplicates.clusters().isEmpty());
+        assertTrue(duplicates.distinct().isEmpty());
+    }
+
+    // covers identical, case and punctuation, retweet, link, one word added, unrelated; one cluster
+    @Test
+    public void testVariantsClustered() {
+        List<Tweet> tweets = Arrays.asList(
+            tweet(0, TALK),
+            tweet(1, "is it reasonable to talk about rivest so much?"),
+            tweet(2, TALK),
+            tweet(3, "RIVEST talk in 30 minutes... come to 32-123 for a GREAT lecture on RSA!!! #hype"),
+            tweet(4, "RT @bbitdiddle: " + TALK),
+            tweet(5, TALK + " http://t.co/abc123"),
+            tweet(6, TALK + " today"),
+            tweet(7, "the weather in cambridge is lovely today"),
+            tweet(8, TALK.replace("great", "fine"))); // shares 60 of 77 shingles: 0.78 < 0.8
+        NearDuplicates duplicates = NearDuplicates.of(tweets);
+
+        List<List<Tweet>> clusters = duplicates.clusters();
+        assertEquals(1, clusters.size());
+        assertEquals(Arrays.asList(0L, 2L, 3L, 4L, 5L, 6L), ids(clusters.get(0)));
+        assertEquals(Arrays.asList(0L, 1L, 7L, 8L), ids(duplicates.distinct()));
+        assertTrue(duplicates.sameCluster(0, 6));
+        assertFalse(duplicates.sameCluster(0, 1));
+    }
+
+    // covers threshold 1: only texts that normalize to the same shingles
+    @Test
+    public void testExactThreshold() {
+        List<Tweet> tweets = Arrays.asList(
+            tweet(0, TALK),
+            tweet(1, TALK.toUpperCase()),
+            tweet(2, TALK.replace("great", "fine")));
+        NearDuplicates duplicates = NearDuplicates.of(tweets, 1);
+        assertTrue(duplicates.sameCluster(0, 1));
+        assertFalse(duplicates.sameCluster(0, 2));
+    }
+
+    // covers both empty, shorter than a shingle; several clusters
+    @Test
+    public void testShortTexts() {
+        List<Tweet> tweets = Arrays.asList(
+            tweet(0, ""), tweet(1, "lol"), tweet(2, "..."), tweet(3, "LOL!"), tweet(4, "ok"), tweet(5, "OK"));
+        NearDuplicates duplicates = NearDuplicates.of(tweets);
+        assertEquals(2, duplicates.clusters().size());
+        assertFalse(duplicates.sameCluster(0, 2));
+        assertTrue(duplicates.sameCluster(1, 3));
+        assertFalse(duplicates.sameCluster(1, 4));
+        assertTrue(duplicates.sameCluster(4, 5));
+    }
+
+    // covers both normalize to empty: only links, only "RT @x:"; no clusters
+    @Test
+    public void testEmptyAfterNormalizing() {
+        List<Tweet> tweets = Arrays.asList(
+            tweet(0, "http://t.co/abc123"),
+            tweet(1, "https://example.com/a/very/different/link"),
+            tweet(2, "RT @alyssa: http://t.co/abc123"),
+            tweet(3, "RT @bitdiddle:"));
+        NearDuplicates duplicates = NearDuplicates.of(tweets);
+        assertTrue(duplicates.clusters().isEmpty());
+        assertEquals(tweets, duplicates.distinct());
+        for (int h : NearDuplicates.signatures(tweets)) {
+            assertEquals(0, h);
+        }
+    }
+
+    // covers more than one parallel chunk: planted copies found, signatures independent of chunking
+    @Test
+    public void testManyTweets() {
+        List<Tweet> tweets = new ArrayList<>(SyntheticTweets.typical(23, 3000).generate(3000));
+        int originals = tweets.size();
+        for (int i = 0; i < originals; i += 100) {
+            Tweet original = tweets.get(i);
+            tweets.add(tweet(1_000_000 + i, "RT @" + original.getAuthor() + ": " + original.getText()));
+        }
+        NearDuplicates duplicates = NearDuplicates.of(tweets);
+        for (int i = 0; i < originals; i += 100) {
+            assertTrue(duplicates.sameCluster(i, originals + i / 100));
+        }
+
+        int[] all = NearDuplicates.signatures(tweets);
+        int[] last = NearDuplicates.signatures(tweets.subList(tweets.size() - 1, tweets.size()));
+        int hashes = all.length / tweets.size();
+        assertArrayEquals(last, Arrays.copyOfRange(all, all.length - hashes, all.length));
+    }
+
+    // covers chained near-duplicates forming one cluster
+    @Test
+    public void testChained() {
+        String a = "alpha bravo charlie delta echo foxtrot golf hotel india juliet kilo lima mike";
+        String b = a.replace("alpha", "zulu");
+        String c = b.replace("mike", "yankee");
+        NearDuplicates duplicates = NearDuplicates.of(Arrays.asList(tweet(0, a), tweet(1, b), tweet(2, c)), 0.75);
+        assertTrue(duplicates.sameCluster(0, 2));
+    }
+
+    // covers invalid threshold
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreshold() {
+        NearDuplicates.of(Collections.emptyList(), 0);
+    }
+
+    private static Tweet tweet(long id, String text) {
+        return new Tweet(id, "alyssa", text, T0.plusSeconds(id));
+    }
+
+    private static List<Long> ids(List<Tweet> tweets) {
+        List<Long> ids = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            ids.add(tweet.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,112 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PageRankTest {
+
+    /*
+     * Testing strategy for PageRank
+     *
+     * cover subdomain of these partitions:
+     *   partition on graph.size: 0, > 0
+     *   partition on dangling users: none, some
+     *   partition on iteration cap: reached, not reached
+     *   partition on k: 0, < size, >= size
+     */
+
+    private static final double EPSILON = 1e-6;
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers graph.size = 0; k >= size
+    @Test
+    public void testEmpty() {
+        PageRank rank = PageRank.of(new HashMap<>());
+
+        assertTrue(rank.ranked().isEmpty());
+        assertTrue(rank.topK(3).isEmpty());
+        assertTrue(rank.isConverged());
+    }
+
+    // covers no dangling users: a cycle has uniform scores
+    @Test
+    public void testCycle() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("a", Collections.singleton("b"));
+        graph.put("b", Collections.singleton("c"));
+        graph.put("c", Collections.singleton("a"));
+        PageRank rank = PageRank.of(graph);
+
+        assertTrue(rank.isConverged());
+        for (String user : Arrays.asList("a", "B", "c")) {
+            assertEquals(1.0 / 3, rank.score(user), EPSILON);
+        }
+        assertEquals(0, rank.score("nobody"), 0);
+    }
+
+    // covers dangling users; k = 0, k < size; an important follower counts for more
+    @Test
+    public void testFollowerQualityBeatsCount() {
+        Map<String, Set<String>> graph = new LinkedHashMap<>();
+        // bert has two followers who are followed by nobody; ernie has only
+        // star, who is followed by everyone else and follows nobody but ernie
+        graph.put("fan1", new HashSet<>(Arrays.asList("bert", "star")));
+        graph.put("fan2", new HashSet<>(Arrays.asList("bert", "star")));
+        graph.put("fan3", new HashSet<>(Arrays.asList("star")));
+        graph.put("fan4", new HashSet<>(Arrays.asList("star")));
+        graph.put("star", new HashSet<>(Arrays.asList("ernie")));
+        PageRank rank = PageRank.of(graph);
+
+        List<String> ranked = rank.ranked();
+        assertEquals(7, ranked.size());
+        assertEquals(Arrays.asList("ernie", "star", "bert"), rank.topK(3));
+        assertEquals(ranked.subList(0, 3), rank.topK(3));
+        assertTrue(rank.topK(0).isEmpty());
+        double sum = 0;
+        for (String user : ranked) {
+            sum += rank.score(user);
+        }
+        assertEquals(1, sum, EPSILON);
+    }
+
+    // covers iteration cap reached
+    @Test
+    public void testIterationCap() {
+        Random random = new Random(6005);
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            Set<String> follows = new HashSet<>();
+            for (int j = 0; j < 3; j++) {
+                follows.add("user" + random.nextInt(10000));
+            }
+            graph.put("user" + i, follows);
+        }
+        CompactFollowsGraph compact = CompactFollowsGraph.fromMap(graph);
+        PageRank capped = PageRank.of(compact, PageRank.DEFAULT_DAMPING, 1e-12, 2);
+        PageRank full = PageRank.of(compact);
+
+        assertEquals(2, capped.iterations());
+        assertFalse(capped.isConverged());
+        assertTrue(full.isConverged());
+        assertEquals(full.ranked().subList(0, 10), full.topK(10));
+    }
+
+}
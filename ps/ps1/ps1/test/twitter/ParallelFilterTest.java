@@ -0,0 +1,69 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ParallelFilterTest {
+
+    /*
+     * Testing strategy for ParallelFilter
+     *
+     * Each method must give exactly Filter's result, in the same order.
+     *   partition on tweets.size: below PARALLEL_THRESHOLD, several chunks
+     *   partition on list kind: RandomAccess, not RandomAccess
+     *   partition on matches: spread across every chunk
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers below threshold, RandomAccess and not
+    @Test
+    public void testSmallLists() {
+        List<Tweet> tweets = makeTweets(100);
+
+        assertEquals(Filter.writtenBy(tweets, "user3"), ParallelFilter.writtenBy(tweets, "USER3"));
+        assertEquals(Filter.containing(tweets, Arrays.asList("rivest")),
+            ParallelFilter.containing(new LinkedList<>(tweets), Arrays.asList("rivest")));
+    }
+
+    // covers several chunks; matches spread across every chunk
+    @Test
+    public void testLargeList() {
+        List<Tweet> tweets = makeTweets(ParallelFilter.PARALLEL_THRESHOLD * 5 + 17);
+        Timespan timespan = new Timespan(d1.plusSeconds(600), d1.plusSeconds(1800));
+        List<String> words = Arrays.asList("talk", "HYPE");
+
+        assertEquals(Filter.writtenBy(tweets, "user3"), ParallelFilter.writtenBy(tweets, "user3"));
+        assertEquals(Filter.inTimespan(tweets, timespan), ParallelFilter.inTimespan(tweets, timespan));
+        assertEquals(Filter.containing(tweets, words), ParallelFilter.containing(tweets, words));
+    }
+
+    /* Make n tweets with pseudo-random authors, texts and timestamps. */
+    private static List<Tweet> makeTweets(int n) {
+        Random random = new Random(6005);
+        String[] texts = {"rivest talk in 30 minutes #hype", "is it reasonable to talk about rivest so much?", "hello"};
+        List<Tweet> tweets = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            tweets.add(new Tweet(i, "user" + random.nextInt(10), texts[random.nextInt(texts.length)],
+                d1.plusSeconds(random.nextInt(3600))));
+        }
+        return tweets;
+    }
+
+}
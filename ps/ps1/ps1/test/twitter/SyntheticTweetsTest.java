@@ -0,0 +1,104 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SyntheticTweetsTest {
+
+    /*
+     * Testing strategy for SyntheticTweets
+     *
+     * cover subdomain of these partitions:
+     *   partition on count: 0, > 0
+     *   partition on seed: same, different
+     *   partition on mentions per tweet: 0, > 0
+     *   partition on text length: short, at the 140-character limit
+     */
+
+    private static final Instant START = Instant.parse("2016-02-17T00:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers count 0
+    @Test
+    public void testEmpty() {
+        assertTrue(SyntheticTweets.typical(1, 0).generate(0).isEmpty());
+    }
+
+    // covers same and different seed
+    @Test
+    public void testDeterministic() {
+        List<Tweet> first = SyntheticTweets.typical(1, 500).generate(500);
+        List<Tweet> again = SyntheticTweets.typical(1, 500).generate(500);
+        List<Tweet> other = SyntheticTweets.typical(2, 500).generate(500);
+
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getId(), again.get(i).getId());
+            assertEquals(first.get(i).getAuthor(), again.get(i).getAuthor());
+            assertEquals(first.get(i).getText(), again.get(i).getText());
+            assertEquals(first.get(i).getTimestamp(), again.get(i).getTimestamp());
+            differs |= !first.get(i).getText().equals(other.get(i).getText());
+        }
+        assertTrue(differs);
+    }
+
+    // covers mentions > 0: distinct ids, timestamps in range, skewed authorship
+    @Test
+    public void testShape() {
+        SyntheticTweets generator = new SyntheticTweets(6005, 200, START, Duration.ofHours(1), 1.0, 0.5);
+        List<Tweet> tweets = generator.generate(20000);
+
+        Set<Long> ids = new HashSet<>();
+        Map<String, Integer> byAuthor = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            assertTrue(ids.add(tweet.getId()));
+            assertFalse(tweet.getTimestamp().isBefore(START));
+            assertTrue(tweet.getTimestamp().isBefore(START.plus(Duration.ofHours(1))));
+            byAuthor.merge(tweet.getAuthor(), 1, Integer::sum);
+        }
+        // with s = 1 over 200 users, the top user writes about 17% of tweets
+        int top = byAuthor.get(generator.username(0));
+        assertTrue(top > 2500 && top < 4500);
+        assertTrue(byAuthor.getOrDefault(generator.username(199), 0) < top / 50);
+        assertTrue(Extract.getMentionedUsers(tweets).size() > 100);
+        assertTrue(Extract.getMentionedUsers(tweets).size() <= 200);
+    }
+
+    // covers many tweets: every text fits in a tweet, even in the rare long ones
+    @Test
+    public void testTextLength() {
+        List<Tweet> tweets = new SyntheticTweets(6005, 1000, START, Duration.ofHours(1), 3.0, 2.0).generate(1_000_000);
+
+        int longest = 0;
+        for (Tweet tweet : tweets) {
+            assertTrue(tweet.getText(), tweet.getText().length() <= 140);
+            longest = Math.max(longest, tweet.getText().length());
+        }
+        assertTrue("the limit should be reached: " + longest, longest > 130);
+    }
+
+    // covers mentions 0
+    @Test
+    public void testNoMentions() {
+        List<Tweet> tweets = new SyntheticTweets(7, 50, START, Duration.ofMinutes(1), 0, 0).generate(1000);
+
+        assertTrue(Extract.getMentionedUsers(tweets).isEmpty());
+    }
+
+}
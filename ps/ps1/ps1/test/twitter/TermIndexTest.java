@@ -0,0 +1,107 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TermIndexTest {
+
+    /*
+     * Testing strategy for TermIndex
+     *
+     * cover subdomain of these partitions:
+     *   partition on words.size: 0, 1, > 1
+     *   partition on word case: same as text, different from text
+     *   partition on word in a tweet: once, repeated, attached to punctuation
+     *   partition on posting containers: array, bitmap, both in one list,
+     *     missing from some runs of 2^16 ordinals
+     *   partition on containers ORed together: all arrays, arrays and bitmaps
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "huangfy", "Talk talk TALK", d1);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers words.size = 0, 1; different case; repeated word; punctuation
+    @Test
+    public void testContainingOneWord() {
+        TermIndex index = TermIndex.of(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertTrue(index.containing(Collections.<String>emptyList()).isEmpty());
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3), index.containing(Arrays.asList("tAlK")));
+        assertEquals(Collections.singletonList(tweet2), index.containing(Arrays.asList("#hype")));
+        assertTrue(index.containing(Arrays.asList("much")).isEmpty());
+    }
+
+    // covers words.size > 1
+    @Test
+    public void testContainingSeveralWords() {
+        TermIndex index = TermIndex.of(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertArrayEquals(new int[] {0, 1}, index.ordinalsContaining(Arrays.asList("reasonable", "minutes", "nothing")));
+    }
+
+    // covers array and bitmap containers ORed together, compared against Filter.containing
+    @Test
+    public void testAgreesWithFilter() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            String text = random.nextInt(20000) == 0 ? "rare Word" : "common words only";
+            tweets.add(new Tweet(i, "alyssa", text, d1));
+        }
+        TermIndex index = TermIndex.of(tweets);
+        List<String> words = Arrays.asList("word", "ONLY");
+
+        assertEquals(Filter.containing(tweets, Arrays.asList("word")), index.containing(Arrays.asList("word")));
+        assertEquals(Filter.containing(tweets, words), index.containing(words));
+    }
+
+    // covers containers of every kind, missing containers, all arrays ORed, compared against Filter.containing
+    @Test
+    public void testContainersAgreeWithFilter() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 5 * (1 << 16); i++) {
+            int run = i >>> 16;
+            StringBuilder text = new StringBuilder("x");
+            if (random.nextInt(1000) == 0) {
+                text.append(" sparse");
+            }
+            if (run != 2 && random.nextInt(run == 0 ? 2 : 16) == 0) {
+                text.append(" varied"); // a bitmap, then about ARRAY_MAX, then none
+            }
+            if (run % 2 == 1 && random.nextInt(100) == 0) {
+                text.append(" odd");
+            }
+            tweets.add(new Tweet(i, "alyssa", text.toString(), d1));
+        }
+        TermIndex index = TermIndex.of(tweets);
+        List<List<String>> queries = Arrays.asList(
+            Arrays.asList("varied"),
+            Arrays.asList("sparse", "odd"),
+            Arrays.asList("SPARSE", "varied"),
+            Arrays.asList("odd", "varied", "sparse"));
+        for (List<String> words : queries) {
+            assertEquals(words.toString(), Filter.containing(tweets, words), index.containing(words));
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimeIndexTest {
+
+    /*
+     * Testing strategy for TimeIndex
+     *
+     * cover subdomain of these partitions:
+     *   partition on input order: sorted by time, unsorted
+     *   partition on timestamp vs. timespan: inside, on an endpoint, outside
+     *   partition on result size: 0, 1, > 1
+     *   partition on tweets.size: 0, small, large (agrees with Filter.inTimespan)
+     *   partition on window width: narrow (sorted), wide (bitmap)
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T10:29:00Z");
+    private static final Instant d4 = Instant.parse("2016-02-17T10:29:49Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "huangfy", "huangblog.com is a blog about a real person @0711feiyu", d3);
+    private static final Tweet tweet4 = new Tweet(4, "huangfy", "@huang-feiyu @huangfeiyu", d4);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers tweets.size = 0; result size 0
+    @Test
+    public void testEmpty() {
+        TimeIndex index = new TimeIndex(Collections.<Tweet>emptyList());
+
+        assertTrue(index.inTimespan(new Timespan(d1, d2)).isEmpty());
+    }
+
+    // covers unsorted input; inside, endpoint, outside; result size 1, > 1
+    @Test
+    public void testInTimespanKeepsInputOrder() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet2, tweet4, tweet1, tweet3));
+
+        assertEquals(Arrays.asList(tweet4, tweet1, tweet3), index.inTimespan(new Timespan(d1, d4)));
+        assertEquals(Collections.singletonList(tweet2), index.inTimespan(new Timespan(d2, d2)));
+        assertArrayEquals(new int[] {1, 3}, index.ordinalsInTimespan(new Timespan(d3, d4)));
+    }
+
+    // covers large unsorted input, compared against Filter.inTimespan
+    @Test
+    public void testAgreesWithFilter() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tweets.add(new Tweet(i, "alyssa", "", d1.plusSeconds(random.nextInt(7200) - 3600)));
+        }
+        TimeIndex index = new TimeIndex(tweets);
+        Timespan wide = new Timespan(d1.minusSeconds(600), d3);
+        Timespan narrow = new Timespan(d1, d1.plusSeconds(30));
+
+        assertEquals(Filter.inTimespan(tweets, wide), index.inTimespan(wide));
+        assertEquals(Filter.inTimespan(tweets, narrow), index.inTimespan(narrow));
+    }
+
+}
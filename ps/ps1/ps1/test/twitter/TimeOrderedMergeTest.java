@@ -0,0 +1,140 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimeOrderedMergeTest {
+
+    /*
+     * Testing strategy for TimeOrderedMerge
+     *
+     * cover subdomain of these partitions:
+     *   partition on number of feeds: 0, 1, > 1
+     *   partition on a feed: empty, one tweet, many tweets
+     *   partition on timestamps across feeds: disjoint ranges, interleaved,
+     *     equal (ties)
+     *   partition on order within a feed: sorted, not sorted
+     *   partition on consumption: all, partial (laziness)
+     */
+
+    private static final Instant T0 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 feeds
+    @Test(expected = NoSuchElementException.class)
+    public void testNoFeeds() {
+        TimeOrderedMerge merge = TimeOrderedMerge.of(Collections.emptyList());
+        assertFalse(merge.hasNext());
+        merge.next();
+    }
+
+    // covers 1 feed, many tweets; empty feed
+    @Test
+    public void testOneFeed() {
+        List<Tweet> feed = Arrays.asList(tweet(1, 0), tweet(2, 5), tweet(3, 5), tweet(4, 9));
+        assertEquals(ids(feed), ids(drain(TimeOrderedMerge.of(Arrays.asList(feed, Collections.emptyList())))));
+    }
+
+    // covers > 1 feeds, disjoint ranges, interleaved, ties in feed order, one tweet
+    @Test
+    public void testInterleavedWithTies() {
+        List<Tweet> a = Arrays.asList(tweet(1, 0), tweet(2, 10), tweet(3, 20));
+        List<Tweet> b = Arrays.asList(tweet(4, 5), tweet(5, 10), tweet(6, 30));
+        List<Tweet> c = Arrays.asList(tweet(7, 10));
+        List<Tweet> d = Arrays.asList(tweet(8, 100), tweet(9, 200));
+        List<Tweet> merged = drain(TimeOrderedMerge.of(Arrays.asList(a, b, c, d)));
+        assertEquals(Arrays.asList(1L, 4L, 2L, 5L, 7L, 3L, 6L, 8L, 9L), ids(merged));
+    }
+
+    // covers many random feeds: same as a stable sort of the concatenation
+    @Test
+    public void testRandomFeeds() {
+        Random random = new Random(6005);
+        for (int trial = 0; trial < 20; trial++) {
+            List<List<Tweet>> feeds = new ArrayList<>();
+            List<Tweet> all = new ArrayList<>();
+            long id = 0;
+            for (int f = random.nextInt(40); f > 0; f--) {
+                List<Tweet> feed = new ArrayList<>();
+                long seconds = random.nextInt(100);
+                for (int n = random.nextInt(50); n > 0; n--) {
+                    seconds += random.nextInt(3);
+                    feed.add(tweet(id++, seconds));
+                }
+                feeds.add(feed);
+                all.addAll(feed);
+            }
+            all.sort(Comparator.comparing(Tweet::getTimestamp)); // stable
+            assertEquals(ids(all), ids(drain(TimeOrderedMerge.of(feeds))));
+        }
+    }
+
+    // covers partial consumption: feeds are read only as far as needed
+    @Test
+    public void testLazy() {
+        int[] reads = new int[1];
+        Iterator<Tweet> endless = new Iterator<Tweet>() {
+            private long seconds = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Tweet next() {
+                reads[0]++;
+                return tweet(seconds, seconds++);
+            }
+        };
+        TimeOrderedMerge merge = new TimeOrderedMerge(Arrays.asList(endless, Arrays.asList(tweet(-1, 2)).iterator()));
+        List<Long> first = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            first.add(merge.next().getId());
+        }
+        assertEquals(Arrays.asList(0L, 1L, 2L, -1L, 3L), first);
+        assertEquals(5, reads[0]);
+    }
+
+    // covers a feed not sorted
+    @Test(expected = IllegalStateException.class)
+    public void testUnsortedFeed() {
+        drain(TimeOrderedMerge.of(Arrays.asList(Arrays.asList(tweet(1, 10), tweet(2, 5)))));
+    }
+
+    private static Tweet tweet(long id, long seconds) {
+        return new Tweet(id, "alyssa", "tweet " + id, T0.plusSeconds(seconds));
+    }
+
+    private static List<Tweet> drain(Iterator<Tweet> iterator) {
+        List<Tweet> tweets = new ArrayList<>();
+        iterator.forEachRemaining(tweets::add);
+        return tweets;
+    }
+
+    private static List<Long> ids(List<Tweet> tweets) {
+        List<Long> ids = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            ids.add(tweet.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,77 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TimespanAggregatorTest {
+
+    /*
+     * Testing strategy for TimespanAggregator
+     *
+     * cover subdomain of these partitions:
+     *   partition on input kind: List, non-List Iterable, Stream
+     *   partition on tweets.size:
+     *     tweets.size = 0
+     *     tweets.size = 1
+     *     tweets.size > 1
+     *     tweets.size >= PARALLEL_THRESHOLD
+     *   partition on timestamps: differ in seconds, differ only in nanos
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T10:29:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "huangfy", "huangblog.com is a blog about a real person @0711feiyu", d3);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers tweets.size = 0, tweets.size = 1
+    @Test
+    public void testOfEmptyAndSingleton() {
+        assertNull(TimespanAggregator.of(Collections.<Tweet>emptyList()));
+        assertEquals(new Timespan(d1, d1), TimespanAggregator.of(Collections.singletonList(tweet1)));
+    }
+
+    // covers List, Iterable, Stream; tweets.size > 1
+    @Test
+    public void testOfInputKinds() {
+        Timespan expected = new Timespan(d1, d2);
+        List<Tweet> tweets = Arrays.asList(tweet3, tweet2, tweet1);
+
+        assertEquals(expected, TimespanAggregator.of(tweets));
+        assertEquals(expected, TimespanAggregator.of(new LinkedHashSet<>(tweets)));
+        assertEquals(expected, TimespanAggregator.of(tweets.stream()));
+    }
+
+    // covers tweets.size >= PARALLEL_THRESHOLD; timestamps differ only in nanos
+    @Test
+    public void testOfLargeListNanos() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < TimespanAggregator.PARALLEL_THRESHOLD * 2; i++) {
+            tweets.add(new Tweet(i, "alyssa", "", d3.plusNanos(i)));
+        }
+        Collections.shuffle(tweets);
+
+        Timespan timespan = TimespanAggregator.of(tweets);
+        assertEquals(d3, timespan.getStart());
+        assertEquals(d3.plusNanos(TimespanAggregator.PARALLEL_THRESHOLD * 2 - 1), timespan.getEnd());
+    }
+
+}
@@ -0,0 +1,166 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class TrendingHashtagsTest {
+
+    /*
+     * Testing strategy for Hashtags and TrendingHashtags
+     *
+     * Hashtags.getHashtags:
+     *   partition on hashtags: none, one, several, repeated in other case
+     *   partition on boundary: start of text, after punctuation, after a
+     *     username character (not a hashtag), "#" alone
+     *
+     * TrendingHashtags:
+     *   partition on uses of a hashtag: 0, 1, > 1 in one tweet, > 1 tweets
+     *   partition on time of query: at the use, half-lives later
+     *   partition on arrival order: by timestamp, out of order
+     *   partition on n: 0, < number of hashtags, > number of hashtags
+     *   partition on threads: 1, > 1
+     *   partition on history: short, many stale hashtags (pruned), spanning
+     *     more than the landmark range (rebased)
+     */
+
+    private static final Instant T0 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Duration HALF_LIFE = Duration.ofMinutes(10);
+    private static final double EPSILON = 1e-9;
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers no hashtags, one, several, repeated in other case, and all boundaries
+    @Test
+    public void testGetHashtags() {
+        assertTrue(Hashtags.getHashtags(Collections.emptyList()).isEmpty());
+        assertTrue(Hashtags.getHashtags(Arrays.asList(tweet("no tags, issue#42, # alone", 0))).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("mit", "6005", "rivest-talk")),
+            Hashtags.getHashtags(Arrays.asList(
+                tweet("#MIT is great", 0),
+                tweet("(#6005) and #rivest-talk!", 0),
+                tweet("#mit again", 0))));
+    }
+
+    // covers 1 use, > 1 tweets, query at the use and half-lives later
+    @Test
+    public void testDecay() {
+        TrendingHashtags trending = new TrendingHashtags(HALF_LIFE);
+        trending.add(tweet("#rivest", 0));
+        assertEquals(1.0, trending.score("rivest", T0), EPSILON);
+        assertEquals(0.5, trending.score("Rivest", T0.plus(HALF_LIFE)), EPSILON);
+        trending.add(tweet("#rivest", 600));
+        assertEquals(1.5, trending.score("rivest", T0.plus(HALF_LIFE)), EPSILON);
+        assertEquals(0.375, trending.score("rivest", T0.plus(HALF_LIFE.multipliedBy(3))), EPSILON);
+        assertEquals(0, trending.score("unused", T0), 0);
+    }
+
+    // covers > 1 use in one tweet, out of order
+    @Test
+    public void testOncePerTweetOutOfOrder() {
+        TrendingHashtags trending = new TrendingHashtags(HALF_LIFE);
+        trending.add(tweet("#a #A #a", 600));
+        trending.add(tweet("#a", 0));
+        assertEquals(1.5, trending.score("a", T0.plusSeconds(600)), EPSILON);
+    }
+
+    // covers n = 0, < and > number of hashtags; ranking by decayed score
+    @Test
+    public void testTop() {
+        TrendingHashtags trending = new TrendingHashtags(HALF_LIFE);
+        assertTrue(trending.top(5).isEmpty());
+        trending.add(tweet("#old #old2", 0));
+        trending.add(tweet("#old", 1));
+        trending.add(tweet("#old", 2));
+        trending.add(tweet("#new #tie", 1800));
+        trending.add(tweet("#new #tie", 1800));
+
+        // at 1800s, #old has 3 * 1/8 = 0.375, #new and #tie 2 each, #old2 0.125
+        Map<String, Double> top = trending.top(3);
+        assertEquals(Arrays.asList("new", "tie", "old"), new ArrayList<>(top.keySet()));
+        assertEquals(2.0, top.get("new"), EPSILON);
+        assertEquals(4, trending.top(10).size());
+        assertTrue(trending.top(0).isEmpty());
+    }
+
+    // covers > 1 threads: same scores as 1 thread
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            tweets.add(tweet("#t" + (i % 97) + " #u" + (i % 13) + " words", i % 3600));
+        }
+        TrendingHashtags serial = new TrendingHashtags(HALF_LIFE);
+        serial.addAll(tweets);
+
+        TrendingHashtags parallel = new TrendingHashtags(HALF_LIFE);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                List<Tweet> part = tweets.subList(t * 5000, (t + 1) * 5000);
+                futures.add(pool.submit(() -> parallel.addAll(part)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Double> expected = serial.top(200);
+        Map<String, Double> actual = parallel.top(200);
+        assertEquals(97 + 13, actual.size());
+        for (Map.Entry<String, Double> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), actual.get(entry.getKey()), 1e-9 * entry.getValue());
+        }
+    }
+
+    // covers many stale hashtags: pruned once they decay away
+    @Test
+    public void testStaleHashtagsPruned() {
+        TrendingHashtags trending = new TrendingHashtags(HALF_LIFE);
+        for (int i = 0; i < 50_000; i++) {
+            trending.add(tweet("#stale" + i, 0));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            trending.add(tweet("#fresh" + i, 3600 * 24));
+        }
+        assertTrue("stale hashtags should be dropped: " + trending.size(), trending.size() < 75_000);
+        assertEquals(1.0, trending.score("fresh49999", T0.plusSeconds(3600 * 24)), EPSILON);
+    }
+
+    // covers history spanning more than the landmark range
+    @Test
+    public void testRebase() {
+        TrendingHashtags trending = new TrendingHashtags(Duration.ofSeconds(1));
+        trending.add(tweet("#early", 0));
+        trending.add(tweet("#later", 3600));
+        trending.add(tweet("#later", 3601));
+        assertEquals(1.5, trending.score("later", T0.plusSeconds(3601)), EPSILON);
+        assertEquals(0, trending.score("early", T0.plusSeconds(3601)), EPSILON);
+        assertEquals(Arrays.asList("later"), new ArrayList<>(trending.top(1).keySet()));
+    }
+
+    private static Tweet tweet(String text, long seconds) {
+        return new Tweet(seconds, "alyssa", text, T0.plusSeconds(seconds));
+    }
+}
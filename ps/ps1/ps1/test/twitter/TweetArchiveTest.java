@@ -0,0 +1,122 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetArchiveTest {
+
+    /*
+     * Testing strategy for TweetArchive
+     *
+     * cover subdomain of these partitions:
+     *   partition on tweets.size: 0, > 1
+     *   partition on authors: all distinct, repeated
+     *   partition on text: ASCII, non-ASCII, empty
+     *   partition on file: written by write(), not an archive, truncated,
+     *     header counts too large or negative
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.000000123Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "caf\u00e9 \ud83d\ude00 #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "", d2);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers tweets.size = 0
+    @Test
+    public void testEmptyArchive() throws IOException {
+        TweetArchive archive = roundTrip(Collections.<Tweet>emptyList());
+
+        assertEquals(0, archive.size());
+        assertTrue(archive.asList().isEmpty());
+    }
+
+    // covers tweets.size > 1; repeated authors; ASCII, non-ASCII and empty text
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        TweetArchive archive = roundTrip(tweets);
+
+        assertEquals(tweets, archive.asList());
+        assertEquals(2, archive.authorCount());
+        assertEquals(archive.authorId(0), archive.authorId(2));
+        assertEquals(tweet2.getText(), archive.text(1));
+        assertEquals(d2, archive.get(1).getTimestamp());
+        assertEquals("alyssa", archive.author(2));
+        assertEquals(3, archive.idColumn().get(2));
+    }
+
+    // covers a file that is not an archive
+    @Test(expected = IOException.class)
+    public void testNotAnArchive() throws IOException {
+        Path path = Files.createTempFile("tweets", ".bin");
+        try {
+            Files.write(path, "[{\"id\": 1}]".getBytes("UTF-8"));
+            TweetArchive.open(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    // covers truncated file, header counts too large or negative
+    @Test
+    public void testCorruptHeader() throws IOException {
+        Path path = Files.createTempFile("tweets", ".bin");
+        try {
+            TweetArchive.write(Arrays.asList(tweet1, tweet2, tweet3), path);
+            byte[] bytes = Files.readAllBytes(path);
+            // tweet count at byte 8, author count at byte 12; 0x20000001 * 8 overflows an int
+            for (int[] corruption : new int[][] {{8, 0x20000001}, {8, -1}, {12, 0x20000001}, {12, -3}}) {
+                byte[] corrupt = bytes.clone();
+                ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+                assertOpenFails(path, corrupt);
+            }
+            assertOpenFails(path, Arrays.copyOf(bytes, 40)); // header only
+            assertOpenFails(path, Arrays.copyOf(bytes, 60)); // inside the columns
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /* Assert that an archive of certain bytes fails to open with an IOException. */
+    private static void assertOpenFails(Path path, byte[] bytes) throws IOException {
+        Files.write(path, bytes);
+        try {
+            TweetArchive.open(path);
+            fail("expected IOException");
+        } catch (IOException ioe) {
+            // expected
+        }
+    }
+
+    /* Write tweets to a temporary archive and map it back. */
+    private static TweetArchive roundTrip(List<Tweet> tweets) throws IOException {
+        Path path = Files.createTempFile("tweets", ".bin");
+        try {
+            TweetArchive.write(tweets, path);
+            return TweetArchive.open(path);
+        } finally {
+            path.toFile().deleteOnExit();
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class TweetDeduplicatorTest {
+
+    /*
+     * Testing strategy for TweetDeduplicator and LongHashSet
+     *
+     * TweetDeduplicator:
+     *   partition on window: none, finite, longer than any timestamp range
+     *   partition on repeat: none, within the window, after the window
+     *   partition on arrival order: by timestamp, out of order, older than
+     *     the window on arrival
+     *   partition on ids remembered: < 1024, > 1024 (the queue grows)
+     *   invalid window: zero, negative
+     *
+     * LongHashSet, compared with a HashSet<Long> under random operations:
+     *   partition on key: 0, positive, negative, sequential, colliding
+     *   partition on operation: add, contains, remove, clear; growing
+     */
+
+    private static final Instant T0 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers no window, repeats; use as a stream filter
+    @Test
+    public void testUnbounded() {
+        List<Tweet> tweets = Arrays.asList(tweet(1, 0), tweet(2, 0), tweet(1, 5), tweet(3, 9), tweet(2, 100_000));
+        List<Long> ids = tweets.stream().filter(new TweetDeduplicator())
+            .map(Tweet::getId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids);
+    }
+
+    // covers finite window, repeat within and after the window, by timestamp
+    @Test
+    public void testWindowed() {
+        TweetDeduplicator dedup = new TweetDeduplicator(Duration.ofMinutes(10));
+        assertTrue(dedup.test(tweet(1, 0)));
+        assertTrue(dedup.test(tweet(2, 60)));
+        assertFalse("repeat within the window", dedup.test(tweet(1, 0)));
+        assertTrue(dedup.test(tweet(3, 600)));
+        assertFalse("exactly the window past is still remembered", dedup.test(tweet(1, 0)));
+        assertTrue(dedup.test(tweet(4, 601)));
+        assertEquals(3, dedup.size());
+        assertTrue("forgotten after the window", dedup.test(tweet(1, 601)));
+        assertFalse(dedup.test(tweet(2, 60)));
+    }
+
+    // covers out of order, older than the window on arrival
+    @Test
+    public void testWindowedOutOfOrder() {
+        TweetDeduplicator dedup = new TweetDeduplicator(Duration.ofSeconds(10));
+        assertTrue(dedup.test(tweet(1, 100)));
+        assertTrue(dedup.test(tweet(2, 95)));
+        assertFalse(dedup.test(tweet(2, 95)));
+        assertTrue("too old to remember", dedup.test(tweet(3, 50)));
+        assertTrue(dedup.test(tweet(3, 50)));
+        assertEquals(2, dedup.size());
+    }
+
+    // covers > 1024 ids remembered, window longer than any range
+    @Test
+    public void testWindowedMany() {
+        TweetDeduplicator window = new TweetDeduplicator(Duration.ofSeconds(3000));
+        TweetDeduplicator huge = new TweetDeduplicator(Duration.ofDays(365L * 1000));
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 5000; i++) {
+                Tweet tweet = tweet(i, i);
+                assertEquals(round == 0 || i < 5000 - 1 - 3000, window.test(tweet));
+                assertEquals(round == 0, huge.test(tweet));
+            }
+        }
+        assertEquals(5000, huge.size());
+    }
+
+    // covers invalid window
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroWindow() {
+        new TweetDeduplicator(Duration.ZERO);
+    }
+
+    // covers all LongHashSet partitions
+    @Test
+    public void testLongHashSetRandom() {
+        Random random = new Random(6005);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int step = 0; step < 200_000; step++) {
+            long key;
+            switch (random.nextInt(4)) {
+            case 0: key = 0; break;
+            case 1: key = random.nextInt(5000) - 2500; break; // small, sequential-ish, negative
+            case 2: key = (long) random.nextInt(64) << 40; break; // same low bits
+            default: key = random.nextLong(); break;
+            }
+            switch (random.nextInt(3)) {
+            case 0: assertEquals(expected.add(key), set.add(key)); break;
+            case 1: assertEquals(expected.remove(key), set.remove(key)); break;
+            default: assertEquals(expected.contains(key), set.contains(key)); break;
+            }
+            assertEquals(expected.size(), set.size());
+            if (step == 100_000) {
+                set.clear();
+                expected.clear();
+            }
+        }
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+    }
+
+    private static Tweet tweet(long id, long seconds) {
+        return new Tweet(id, "alyssa", "tweet " + id, T0.plusSeconds(seconds));
+    }
+}
@@ -0,0 +1,238 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class TweetFetcherTest {
+
+    /*
+     * Testing strategy for TweetFetcher
+     *
+     * Sources are served by a local HttpServer.
+     *
+     * cover subdomain of these partitions:
+     *   partition on sources: 0, 1, > 1
+     *   partition on overlap between sources: none, some
+     *   partition on a source's responses: well-formed, error status then
+     *     well-formed, cut off then well-formed, too slow, malformed JSON
+     *   partition on retries: 0, > 0
+     *   partition on capacity: 1, > number of tweets
+     *   partition on consumption: all, closed early
+     */
+
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+
+    private HttpServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool()); // serve sources concurrently
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 sources
+    @Test
+    public void testNoSources() {
+        try (TweetFetcher fetcher = TweetFetcher.fetch(Collections.emptyList())) {
+            assertFalse(fetcher.hasNext());
+            assertTrue(fetcher.failures().isEmpty());
+        }
+    }
+
+    // covers 1 source, well-formed, capacity > number of tweets
+    @Test
+    public void testOneSource() {
+        URL a = serve("/a", feed(0, 10));
+        List<Tweet> tweets = TweetFetcher.fetchAll(Arrays.asList(a));
+        assertEquals(range(0, 10), ids(tweets));
+    }
+
+    // covers > 1 sources, some overlap, capacity 1
+    @Test
+    public void testOverlappingSourcesDeduplicated() {
+        URL a = serve("/a", feed(0, 300));
+        URL b = serve("/b", feed(200, 500));
+        URL c = serve("/c", feed(450, 600));
+        try (TweetFetcher fetcher = new TweetFetcher(Arrays.asList(a, b, c), TIMEOUT, 0, 1)) {
+            List<Tweet> tweets = fetcher.stream().collect(Collectors.toList());
+            assertEquals(600, tweets.size());
+            assertEquals(range(0, 600), ids(tweets));
+            assertTrue(fetcher.failures().isEmpty());
+        }
+    }
+
+    // covers error status then well-formed, retries > 0
+    @Test
+    public void testErrorStatusRetried() {
+        AtomicInteger requests = new AtomicInteger();
+        URL flaky = serve("/flaky", exchange -> {
+            if (requests.getAndIncrement() == 0) {
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                respond(exchange, feed(0, 5));
+            }
+        });
+        try (TweetFetcher fetcher = new TweetFetcher(Arrays.asList(flaky), TIMEOUT, 1, 16)) {
+            assertEquals(range(0, 5), ids(fetcher.stream().collect(Collectors.toList())));
+            assertTrue(fetcher.failures().isEmpty());
+        }
+        assertEquals(2, requests.get());
+    }
+
+    // covers cut off then well-formed: the retry's repeated tweets are dropped
+    @Test
+    public void testCutOffRetriedWithoutDuplicates() {
+        AtomicInteger requests = new AtomicInteger();
+        byte[] body = feed(0, 200).getBytes(StandardCharsets.UTF_8);
+        URL cut = serve("/cut", exchange -> {
+            if (requests.getAndIncrement() == 0) {
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body, 0, body.length / 2);
+                out.flush();
+                exchange.close(); // short of the declared length, so the connection is dropped
+            } else {
+                respond(exchange, new String(body, StandardCharsets.UTF_8));
+            }
+        });
+        try (TweetFetcher fetcher = new TweetFetcher(Arrays.asList(cut), TIMEOUT, 2, 16)) {
+            List<Tweet> tweets = fetcher.stream().collect(Collectors.toList());
+            assertEquals(fetcher.failures().toString(), 200, tweets.size());
+            assertEquals(range(0, 200), ids(tweets));
+            assertTrue(fetcher.failures().isEmpty());
+        }
+    }
+
+    // covers too slow, retries 0: the source fails, the others are delivered
+    @Test
+    public void testSlowSourceTimesOut() {
+        URL a = serve("/a", feed(0, 10));
+        URL slow = serve("/slow", exchange -> {
+            try {
+                Thread.sleep(4 * TIMEOUT.toMillis());
+            } catch (InterruptedException ie) {
+                return;
+            }
+            respond(exchange, feed(10, 20));
+        });
+        try (TweetFetcher fetcher = new TweetFetcher(Arrays.asList(a, slow), TIMEOUT, 0, 16)) {
+            assertEquals(range(0, 10), ids(fetcher.stream().collect(Collectors.toList())));
+            assertEquals(Collections.singleton(slow), fetcher.failures().keySet());
+        }
+    }
+
+    // covers malformed JSON, retries > 0: not retried
+    @Test
+    public void testMalformedSourceNotRetried() {
+        AtomicInteger requests = new AtomicInteger();
+        URL bad = serve("/bad", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, "[{\"id\": 1}]");
+        });
+        URL a = serve("/a", feed(0, 3));
+        try (TweetFetcher fetcher = new TweetFetcher(Arrays.asList(bad, a), TIMEOUT, 3, 16)) {
+            assertEquals(range(0, 3), ids(fetcher.stream().collect(Collectors.toList())));
+            assertEquals(Collections.singleton(bad), fetcher.failures().keySet());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    // covers closed early, capacity 1: source threads blocked on the full queue are released
+    @Test
+    public void testClosedEarly() throws InterruptedException {
+        URL a = serve("/a", feed(0, 1000));
+        TweetFetcher fetcher = new TweetFetcher(Arrays.asList(a), TIMEOUT, 0, 1);
+        assertTrue(fetcher.hasNext());
+        fetcher.next();
+        fetcher.close();
+        assertFalse(fetcher.hasNext());
+    }
+
+    /* Serve a fixed body at path. */
+    private URL serve(String path, String body) {
+        return serve(path, exchange -> respond(exchange, body));
+    }
+
+    /* Serve path with a handler. */
+    private URL serve(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        try {
+            return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        } catch (IOException ioe) {
+            throw new AssertionError(ioe);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /* @return a JSON array of tweets with ids from..to-1 */
+    private static String feed(int from, int to) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = from; i < to; i++) {
+            json.append(i == from ? "" : ", ")
+                .append("{\"id\": ").append(i)
+                .append(", \"user\": {\"screen_name\": \"user").append(i % 7).append("\"}")
+                .append(", \"text\": \"tweet ").append(i).append(" @user").append(i % 5).append("\"")
+                .append(", \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}");
+        }
+        return json.append("]").toString();
+    }
+
+    private static Set<Long> ids(List<Tweet> tweets) {
+        Set<Long> ids = new HashSet<>();
+        for (Tweet tweet : tweets) {
+            ids.add(tweet.getId());
+        }
+        return ids;
+    }
+
+    private static Set<Long> range(long from, long to) {
+        Set<Long> ids = new HashSet<>();
+        for (long id = from; id < to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
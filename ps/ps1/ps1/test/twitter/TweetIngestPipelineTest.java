@@ -0,0 +1,115 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class TweetIngestPipelineTest {
+
+    /*
+     * Testing strategy for TweetIngestPipeline and CreatedAt
+     *
+     * cover subdomain of these partitions:
+     *   partition on tweets: 0, < one batch, several batches
+     *   partition on workers: 1, > 1
+     *   partition on input: well-formed, malformed JSON, malformed created_at
+     *   partition on created_at: UTC, positive offset, negative offset,
+     *     leap day, wrong day name, not the fixed layout
+     */
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 tweets
+    @Test
+    public void testEmpty() throws IOException {
+        assertTrue(TweetIngestPipeline.readAll(new StringReader("[]")).isEmpty());
+    }
+
+    // covers several batches; 1 and > 1 workers; order preserved
+    @Test
+    public void testOrderPreserved() throws IOException {
+        String json = feed(3 * TweetIngestPipeline.BATCH_SIZE + 7);
+        List<Tweet> expected = new TweetStreamReader(new StringReader(json)).stream().collect(Collectors.toList());
+
+        for (int workers : new int[] {1, 4}) {
+            List<Tweet> tweets = new ArrayList<>();
+            TweetIngestPipeline.ingest(new StringReader(json), workers, tweets::add);
+            assertEquals(expected.size(), tweets.size());
+            for (int i = 0; i < tweets.size(); i++) {
+                assertEquals(expected.get(i).getId(), tweets.get(i).getId());
+                assertEquals(expected.get(i).getTimestamp(), tweets.get(i).getTimestamp());
+            }
+        }
+    }
+
+    // covers malformed JSON
+    @Test(expected = JsonException.class)
+    public void testMalformedJson() throws IOException {
+        TweetIngestPipeline.readAll(new StringReader("{\"id\": 1}"));
+    }
+
+    // covers malformed created_at, after several batches
+    @Test(expected = DateTimeParseException.class)
+    public void testMalformedTimestamp() throws IOException {
+        String json = feed(2 * TweetIngestPipeline.BATCH_SIZE);
+        json = json.substring(0, json.length() - 1)
+            + ", {\"id\": 0, \"user.screen_name\": \"x\", \"text\": \"\", \"created_at\": \"yesterday\"}]";
+        TweetIngestPipeline.readAll(new StringReader(json));
+    }
+
+    // covers UTC, positive and negative offsets, leap day
+    @Test
+    public void testCreatedAt() {
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), CreatedAt.parse("Wed Feb 17 10:00:00 +0000 2016"));
+        assertEquals(Instant.parse("2016-02-17T05:30:00Z"), CreatedAt.parse("Wed Feb 17 11:00:00 +0530 2016"));
+        assertEquals(Instant.parse("2016-03-01T02:59:59Z"), CreatedAt.parse("Mon Feb 29 23:59:59 -0300 2016"));
+        assertEquals(Instant.parse("1969-12-31T23:59:59Z"), CreatedAt.parse("Wed Dec 31 23:59:59 +0000 1969"));
+    }
+
+    // covers wrong day name
+    @Test(expected = DateTimeParseException.class)
+    public void testCreatedAtWrongDayName() {
+        CreatedAt.parse("Thu Feb 17 10:00:00 +0000 2016");
+    }
+
+    // covers not the fixed layout
+    @Test(expected = DateTimeParseException.class)
+    public void testCreatedAtWrongLayout() {
+        CreatedAt.parse("2016-02-17T10:00:00Z");
+    }
+
+    /* @return a JSON array of n tweets with a spread of timestamps */
+    private static String feed(int n) {
+        String[] days = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            int day = 1 + i % 28;
+            json.append(i == 0 ? "" : ", ")
+                .append("{\"id\": ").append(i)
+                .append(", \"user\": {\"screen_name\": \"user").append(i % 17).append("\"}")
+                .append(", \"text\": \"tweet ").append(i).append("\"")
+                // Feb 1 2016 was a Monday
+                .append(", \"created_at\": \"").append(days[(day - 1) % 7]).append(" Feb ")
+                .append(String.format("%02d %02d:%02d:%02d", day, i % 24, i % 60, (i * 7) % 60))
+                .append(" +0000 2016\"}");
+        }
+        return json.append("]").toString();
+    }
+
+}
@@ -0,0 +1,94 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetQueryTest {
+
+    /*
+     * Testing strategy for TweetQuery
+     *
+     * cover subdomain of these partitions:
+     *   partition on query: leaf, AND, OR, NOT, nested
+     *   partition on tweets: 0, <= sample size, > sample size
+     *   partition on list: random access, sequential
+     *   partition on result: empty, some, all
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "off to lunch", d2);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers leaf; 0 tweets; empty result
+    @Test
+    public void testEmpty() {
+        TweetQuery query = TweetQuery.writtenBy("alyssa");
+
+        assertTrue(query.filter(new ArrayList<>()).isEmpty());
+        assertEquals(0, query.ordinals(new ArrayList<>()).length);
+    }
+
+    // covers AND, OR, NOT; <= sample size; some and all results
+    @Test
+    public void testOperators() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        TweetQuery byAlyssa = TweetQuery.writtenBy("ALYSSA");
+        TweetQuery late = TweetQuery.inTimespan(new Timespan(d2, d2));
+        TweetQuery rivest = TweetQuery.containing(Arrays.asList("Rivest"));
+
+        assertEquals(Arrays.asList(tweet3), TweetQuery.and(byAlyssa, late).filter(tweets));
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3), TweetQuery.or(byAlyssa, late).filter(tweets));
+        assertEquals(Arrays.asList(tweet2), TweetQuery.not(byAlyssa).filter(tweets));
+        assertEquals(Arrays.asList(tweet1, tweet3), TweetQuery.not(TweetQuery.not(byAlyssa)).filter(tweets));
+        assertArrayEquals(new int[] {0, 2},
+            TweetQuery.or(TweetQuery.and(byAlyssa, rivest), TweetQuery.not(rivest)).ordinals(tweets));
+        assertTrue(TweetQuery.and(byAlyssa, rivest).matches(tweet1));
+        assertFalse(TweetQuery.and(byAlyssa, rivest).matches(tweet3));
+    }
+
+    // covers nested; > sample size; random access and sequential; agrees with chained Filter calls
+    @Test
+    public void testAgreesWithFilter() {
+        SyntheticTweets generator = SyntheticTweets.typical(6005, 5000);
+        List<Tweet> tweets = generator.generate(5000);
+        Instant start = Instant.parse("2016-02-17T06:00:00Z");
+        Timespan timespan = new Timespan(start, start.plus(Duration.ofHours(8)));
+        List<String> words = Arrays.asList("rivest", "LOL");
+        String author = generator.username(0);
+
+        List<Tweet> expected = Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets, author), timespan), words);
+        TweetQuery query = TweetQuery.and(TweetQuery.containing(words),
+            TweetQuery.and(TweetQuery.inTimespan(timespan), TweetQuery.writtenBy(author)));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, query.filter(tweets));
+        assertEquals(expected, query.filter(new LinkedList<>(tweets)));
+        int[] ordinals = query.ordinals(tweets);
+        assertEquals(expected.size(), ordinals.length);
+        for (int i = 0; i < ordinals.length; i++) {
+            assertSame(expected.get(i), tweets.get(ordinals[i]));
+        }
+        // the rare author test is cheap and selective, so the plan runs it first
+        assertTrue(query.plan(tweets).toString().startsWith("(writtenBy("));
+    }
+
+}
@@ -0,0 +1,172 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetSearchTest {
+
+    /*
+     * Testing strategy for TweetSearch
+     *
+     * cover subdomain of these partitions:
+     *   partition on words: 0, 1, > 1, repeated in other case, not indexed
+     *   partition on k: 0, < matches, > matches, invalid
+     *   partition on ranking: by tf, by tweet length, by rarity of word,
+     *     equal scores
+     *   partition on posting lists: one block, many blocks (skipped)
+     *   partition on adds: before any query, between queries
+     *   partition on BM25 parameters: default, b = 0, invalid
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final double EPSILON = 1e-12;
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 words, word not indexed, k = 0
+    @Test
+    public void testNoMatches() {
+        TweetSearch index = TweetSearch.of(Arrays.asList(tweet(0, "rivest talk")));
+        assertTrue(index.search(Collections.<String>emptyList(), 10).isEmpty());
+        assertTrue(index.search(Arrays.asList("nothing"), 10).isEmpty());
+        assertTrue(index.search(Arrays.asList("rivest"), 0).isEmpty());
+        assertEquals(0, index.score(Arrays.asList("nothing"), 0), 0);
+        assertTrue(TweetSearch.of(Collections.<Tweet>emptyList()).search(Arrays.asList("a"), 1).isEmpty());
+    }
+
+    // covers 1 word, k > matches; ranking by tf, by length, equal scores
+    @Test
+    public void testRankingOneWord() {
+        List<Tweet> tweets = Arrays.asList(
+            tweet(0, "talk about rivest for a while today"),
+            tweet(1, "TALK talk"),
+            tweet(2, "talk now"),
+            tweet(3, "no match here"),
+            tweet(4, "talk now"));
+        TweetSearch index = TweetSearch.of(tweets);
+        assertEquals(Arrays.asList(1L, 2L, 4L, 0L), ids(index.search(Arrays.asList("Talk"), 10)));
+        assertEquals(index.score(Arrays.asList("talk"), 2), index.score(Arrays.asList("talk"), 4), 0);
+    }
+
+    // covers > 1 words, repeated in other case, k < matches; ranking by rarity
+    @Test
+    public void testRankingSeveralWords() {
+        List<Tweet> tweets = Arrays.asList(
+            tweet(0, "the talk"),
+            tweet(1, "the rivest"),
+            tweet(2, "the talk"),
+            tweet(3, "the talk"),
+            tweet(4, "the rivest talk"));
+        TweetSearch index = TweetSearch.of(tweets);
+        List<String> words = Arrays.asList("rivest", "TALK", "talk");
+        assertEquals(Arrays.asList(4L, 1L), ids(index.search(words, 2)));
+
+        // hand-computed: N = 5, avgdl = 11/5; "rivest" has df = 2
+        double idf = Math.log(1 + (5 - 2 + 0.5) / (2 + 0.5));
+        double expected = idf * 2.2 / (1 + 1.2 * (0.25 + 0.75 * 2 / (11 / 5.0)));
+        assertEquals(expected, index.score(Arrays.asList("rivest", "RIVEST"), 1), EPSILON);
+    }
+
+    // covers b = 0: length doesn't matter; invalid parameters
+    @Test
+    public void testParameters() {
+        TweetSearch index = new TweetSearch(1.2, 0);
+        index.add(tweet(0, "talk a b c d e f g"));
+        index.add(tweet(1, "talk"));
+        assertEquals(index.score(Arrays.asList("talk"), 0), index.score(Arrays.asList("talk"), 1), 0);
+        assertEquals(Arrays.asList(0L, 1L), ids(index.search(Arrays.asList("talk"), 2)));
+        try {
+            new TweetSearch(1.2, 1.5);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    // covers invalid k
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeK() {
+        new TweetSearch().search(Arrays.asList("talk"), -1);
+    }
+
+    // covers many blocks, k < and > matches, adds between queries: same as scoring every tweet
+    @Test
+    public void testAgreesWithExhaustiveRanking() {
+        Random random = new Random(6005);
+        String[] vocabulary = new String[60];
+        for (int w = 0; w < vocabulary.length; w++) {
+            vocabulary[w] = "w" + w;
+        }
+        TweetSearch index = new TweetSearch();
+        for (int round = 0; round < 3; round++) {
+            int shortest = 1;
+            int longest = 1;
+            for (int i = 0; i < 5000; i++) {
+                if (i % 500 == 0) {
+                    // runs of short or long tweets, so blocks have different bounds
+                    shortest = random.nextBoolean() ? 1 : 10;
+                    longest = shortest + random.nextInt(20);
+                }
+                StringBuilder text = new StringBuilder();
+                for (int n = shortest + random.nextInt(longest - shortest + 1); n > 0; n--) {
+                    // skewed: low-numbered words are common, high-numbered rare
+                    int w = (int) (vocabulary.length * Math.pow(random.nextDouble(), 3));
+                    text.append(random.nextBoolean() ? vocabulary[w] : vocabulary[w].toUpperCase()).append(' ');
+                }
+                index.add(tweet(index.size(), text.toString()));
+            }
+            for (int query = 0; query < 30; query++) {
+                List<String> words = new ArrayList<>();
+                for (int n = 1 + random.nextInt(4); n > 0; n--) {
+                    words.add(vocabulary[random.nextInt(vocabulary.length)]);
+                }
+                int k = new int[] {1, 10, 100, 100_000}[random.nextInt(4)];
+                assertArrayEquals(words + " top " + k, exhaustive(index, words, k), index.topOrdinals(words, k));
+            }
+        }
+    }
+
+    /* @return the top k ordinals by score(), then ordinal, among tweets with a positive score */
+    private static int[] exhaustive(TweetSearch index, List<String> words, int k) {
+        List<Integer> ordinals = new ArrayList<>();
+        double[] scores = new double[index.size()];
+        for (int i = 0; i < index.size(); i++) {
+            scores[i] = index.score(words, i);
+            if (scores[i] > 0) {
+                ordinals.add(i);
+            }
+        }
+        ordinals.sort((i, j) -> scores[i] != scores[j] ? Double.compare(scores[j], scores[i]) : Integer.compare(i, j));
+        int[] top = new int[Math.min(k, ordinals.size())];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = ordinals.get(i);
+        }
+        return top;
+    }
+
+    private static Tweet tweet(long id, String text) {
+        return new Tweet(id, "alyssa", text, d1);
+    }
+
+    private static List<Long> ids(List<Tweet> tweets) {
+        List<Long> ids = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            ids.add(tweet.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,101 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetStoreTest {
+
+    /*
+     * Testing strategy for TweetStore
+     *
+     * cover subdomain of these partitions:
+     *   partition on store.size: 0, 1, > 1
+     *   partition on text: Latin-1 only, contains a char outside Latin-1
+     *   partition on author case: matches query, differs from query
+     *   partition on timestamp vs. timespan: inside, on an endpoint, outside
+     *   partition on query result size: 0, 1, > 1
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T10:29:00Z");
+    private static final Instant d4 = Instant.parse("2016-02-17T10:29:49Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "HuangFY", "huangblog.com is a blog about a real person @0711feiyu", d3);
+    private static final Tweet tweet4 = new Tweet(4, "huangfy", "\u4f60\u597d Talk @huang-feiyu @HuangFeiyu", d4);
+
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers size = 0
+    @Test
+    public void testEmptyStore() {
+        TweetStore store = TweetStore.of(Collections.<Tweet>emptyList());
+
+        assertEquals(0, store.size());
+        assertNull(store.getTimespan());
+        assertEquals(0, store.writtenBy("alyssa").length);
+        assertTrue(store.getMentionedUsers().isEmpty());
+    }
+
+    // covers size > 1; Latin-1 and wide text; author case
+    @Test
+    public void testColumnsRoundTrip() {
+        TweetStore store = TweetStore.of(tweets);
+
+        assertEquals(4, store.size());
+        assertEquals(tweet3, store.get(2));
+        assertEquals("huangfy", store.author(2));
+        assertEquals(tweet3.getText(), store.text(2));
+        assertEquals(tweet4.getText(), store.text(3));
+        assertEquals(d4, store.get(3).getTimestamp());
+        assertEquals(store.authorId(2), store.authorId(3));
+    }
+
+    // covers result size 0, 1, > 1; author case differs from query
+    @Test
+    public void testWrittenBy() {
+        TweetStore store = TweetStore.of(tweets);
+
+        assertArrayEquals(new int[0], store.writtenBy("ben"));
+        assertArrayEquals(new int[] {0}, store.writtenBy("ALYSSA"));
+        assertArrayEquals(new int[] {2, 3}, store.writtenBy("huangfy"));
+    }
+
+    // covers timestamps inside, on an endpoint, outside
+    @Test
+    public void testInTimespan() {
+        TweetStore store = TweetStore.of(tweets);
+
+        assertArrayEquals(new int[] {0, 2, 3}, store.inTimespan(new Timespan(d1, d4)));
+        assertEquals(new Timespan(d1, d2), store.getTimespan());
+    }
+
+    // covers Latin-1 and wide text; case-insensitive words
+    @Test
+    public void testContainingAndMentions() {
+        TweetStore store = TweetStore.of(tweets);
+
+        assertArrayEquals(new int[] {0, 1, 3}, store.containing(Arrays.asList("TALK")));
+        assertArrayEquals(new int[0], store.containing(Collections.<String>emptyList()));
+        assertEquals(new HashSet<>(Arrays.asList("0711feiyu", "huang-feiyu", "huangfeiyu")),
+            store.getMentionedUsers());
+    }
+
+}
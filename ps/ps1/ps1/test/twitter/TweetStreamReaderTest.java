@@ -0,0 +1,124 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class TweetStreamReaderTest {
+
+    /*
+     * Testing strategy for TweetStreamReader
+     *
+     * cover subdomain of these partitions:
+     *   partition on array size: 0, 1, > 1
+     *   partition on author field: "user.screen_name" key, nested "user" object
+     *   partition on id: JSON number, JSON string
+     *   partition on other fields: none, scalars, nested objects and arrays
+     *   partition on input: well-formed, missing a field, not an array, not JSON
+     */
+
+    private static final String TWEET1 = "{\"id\": 1, \"user.screen_name\": \"alyssa\", "
+        + "\"text\": \"is it reasonable to talk about rivest so much?\", "
+        + "\"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    private static final String TWEET2 = "{\"retweet_count\": 3, \"entities\": {\"id\": 99, \"urls\": [{\"id\": 98}]}, "
+        + "\"id\": \"2\", \"user\": {\"id\": 7, \"screen_name\": \"bbitdiddle\", \"tags\": []}, "
+        + "\"text\": \"rivest talk in 30 minutes #hype\", \"truncated\": false, "
+        + "\"created_at\": \"Wed Feb 17 11:00:00 +0000 2016\"}";
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers array size 0
+    @Test
+    public void testEmptyArray() {
+        TweetStreamReader reader = new TweetStreamReader(new StringReader("[]"));
+
+        assertFalse(reader.hasNext());
+        try {
+            reader.next();
+            fail("expected NoSuchElementException");
+        } catch (NoSuchElementException nsee) {
+            // expected
+        }
+    }
+
+    // covers array size > 1; both author forms; both id forms; nested fields skipped
+    @Test
+    public void testReadTweets() {
+        TweetStreamReader reader = new TweetStreamReader(new StringReader("[" + TWEET1 + ", " + TWEET2 + "]"));
+        List<Tweet> tweets = reader.stream().collect(Collectors.toList());
+
+        assertEquals(2, tweets.size());
+        Tweet tweet1 = tweets.get(0);
+        Tweet tweet2 = tweets.get(1);
+        assertEquals(1, tweet1.getId());
+        assertEquals("alyssa", tweet1.getAuthor());
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), tweet1.getTimestamp());
+        assertEquals(2, tweet2.getId());
+        assertEquals("bbitdiddle", tweet2.getAuthor());
+        assertEquals("rivest talk in 30 minutes #hype", tweet2.getText());
+        assertEquals(Instant.parse("2016-02-17T11:00:00Z"), tweet2.getTimestamp());
+    }
+
+    // covers array size 1; missing field
+    @Test(expected = JsonException.class)
+    public void testMissingField() {
+        TweetStreamReader reader = new TweetStreamReader(new StringReader("[{\"id\": 1, \"text\": \"hi\"}]"));
+        reader.next();
+    }
+
+    // covers input that is not an array
+    @Test(expected = JsonException.class)
+    public void testNotAnArray() {
+        new TweetStreamReader(new StringReader(TWEET1));
+    }
+
+    // covers input that is not an array, or not JSON at all: the reader is closed
+    @Test
+    public void testNotAnArrayClosesReader() {
+        for (String input : new String[] {TWEET1, "", "}{"}) {
+            final boolean[] closed = {false};
+            StringReader reader = new StringReader(input) {
+                @Override
+                public void close() {
+                    closed[0] = true;
+                    super.close();
+                }
+            };
+            try {
+                new TweetStreamReader(reader);
+                fail("expected JsonException for " + input);
+            } catch (JsonException je) {
+                assertTrue("reader left open for " + input, closed[0]);
+            }
+        }
+    }
+
+    // covers reading lazily: tweets before a malformed element are still returned
+    @Test
+    public void testLazy() {
+        TweetStreamReader reader = new TweetStreamReader(new StringReader("[" + TWEET1 + ", 42]"));
+
+        assertEquals(1, reader.next().getId());
+        try {
+            reader.hasNext();
+            fail("expected JsonException");
+        } catch (JsonException je) {
+            // expected
+        }
+    }
+
+}
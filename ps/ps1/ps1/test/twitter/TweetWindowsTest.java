@@ -0,0 +1,154 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetWindowsTest {
+
+    /*
+     * Testing strategy for TweetWindows
+     *
+     * cover subdomain of these partitions:
+     *   partition on windows: tumbling, sliding
+     *   partition on arrival order: in order, late within lateness, too late
+     *   partition on gaps: none, empty windows between tweets
+     *   partition on end of stream: flushed, still open
+     *   partition on users: recurring, ever new (username pool replaced)
+     */
+
+    private static final Instant t0 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers tumbling; in order; empty windows between tweets; flushed
+    @Test
+    public void testTumbling() {
+        List<TweetWindows.Window> closed = new ArrayList<>();
+        TweetWindows windows = TweetWindows.tumbling(MINUTE, Duration.ZERO, closed::add);
+
+        assertNull(windows.openWindow());
+        windows.ingest(tweet(1, "Alyssa", "hi @bert and @BERT @ernie", 10));
+        windows.ingest(tweet(2, "bert", "hey @alyssa", 50));
+        windows.ingest(tweet(3, "alyssa", "@ernie?", 70));
+        assertEquals(1, closed.size());
+        assertEquals(1, windows.openWindow().getTweetCount());
+        windows.ingest(tweet(4, "ernie", "back", 5 * 60));
+        windows.flush();
+
+        assertEquals(3, closed.size());
+        TweetWindows.Window first = closed.get(0);
+        assertEquals(t0, first.getStart());
+        assertEquals(t0.plus(MINUTE), first.getEnd());
+        assertEquals(2, first.getTweetCount());
+        assertEquals(new HashSet<>(Arrays.asList("alyssa", "bert")), first.getActiveAuthors());
+        Map<String, Integer> mentions = new HashMap<>();
+        mentions.put("bert", 1);
+        mentions.put("ernie", 1);
+        mentions.put("alyssa", 1);
+        assertEquals(mentions, first.getMentionCounts());
+        assertEquals(t0.plus(MINUTE), closed.get(1).getStart());
+        assertEquals(t0.plusSeconds(5 * 60), closed.get(2).getStart());
+        assertNull(windows.openWindow());
+        assertFalse(windows.ingest(tweet(5, "late", "after the end", 6 * 60)));
+    }
+
+    // covers late within lateness, too late; still open
+    @Test
+    public void testLateness() {
+        List<TweetWindows.Window> closed = new ArrayList<>();
+        TweetWindows windows = TweetWindows.tumbling(MINUTE, Duration.ofSeconds(30), closed::add);
+
+        assertTrue(windows.ingest(tweet(1, "a", "x", 50)));
+        assertTrue(windows.ingest(tweet(2, "b", "x", 80)));
+        assertTrue(windows.ingest(tweet(3, "c", "x", 55))); // 25s late, window still open
+        assertTrue(closed.isEmpty());
+        assertTrue(windows.ingest(tweet(4, "d", "x", 95))); // watermark 65s closes [0, 60)
+        assertFalse(windows.ingest(tweet(5, "e", "x", 59))); // its window has closed
+
+        assertEquals(1, closed.size());
+        assertEquals(2, closed.get(0).getTweetCount());
+        assertEquals(1, windows.droppedCount());
+        assertEquals(2, windows.openWindow().getTweetCount());
+    }
+
+    // covers sliding, out of order within lateness; agrees with recomputing each window
+    @Test
+    public void testSlidingMatchesRecomputation() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long seconds = i * 3 + random.nextInt(40); // up to 40s out of order
+            tweets.add(tweet(i, "user" + random.nextInt(30),
+                "@user" + random.nextInt(30) + " @user" + random.nextInt(30), seconds));
+        }
+        List<TweetWindows.Window> closed = new ArrayList<>();
+        TweetWindows windows = TweetWindows.sliding(Duration.ofMinutes(5), MINUTE, Duration.ofSeconds(40), closed::add);
+        for (Tweet tweet : tweets) {
+            assertTrue(windows.ingest(tweet));
+        }
+        windows.flush();
+
+        assertFalse(closed.isEmpty());
+        Instant previous = Instant.MIN;
+        for (TweetWindows.Window window : closed) {
+            assertTrue(window.getStart().isAfter(previous));
+            previous = window.getStart();
+            assertEquals(Duration.ofMinutes(5), Duration.between(window.getStart(), window.getEnd()));
+
+            List<Tweet> inWindow = new ArrayList<>();
+            for (Tweet tweet : tweets) {
+                if (!tweet.getTimestamp().isBefore(window.getStart()) && tweet.getTimestamp().isBefore(window.getEnd())) {
+                    inWindow.add(tweet);
+                }
+            }
+            assertEquals(inWindow.size(), window.getTweetCount());
+            assertEquals(Extract.getMentionedUsers(inWindow), window.getMentionCounts().keySet());
+            assertEquals(SocialNetwork.guessFollowsGraph(inWindow).keySet(), window.getActiveAuthors());
+        }
+    }
+
+    // covers ever new users: the username pool stays bounded, and counts survive replacing it
+    @Test
+    public void testEverNewUsers() {
+        List<TweetWindows.Window> closed = new ArrayList<>();
+        TweetWindows windows = TweetWindows.sliding(Duration.ofMinutes(2), MINUTE, Duration.ZERO, closed::add);
+        int perMinute = 100;
+        for (int i = 0; i < 200 * perMinute; i++) {
+            String text = (i % 2 == 0 ? "@hot" : "@HOT") + " @user" + (i - 1);
+            windows.ingest(tweet(i, "user" + i, text, 60L * i / perMinute));
+            assertTrue("pool size " + windows.poolSize(), windows.poolSize() <= 4 * 4 * perMinute + 1024);
+        }
+        windows.flush();
+
+        assertEquals(200 + 1, closed.size());
+        for (TweetWindows.Window window : closed.subList(1, closed.size() - 1)) {
+            assertEquals(2 * perMinute, window.getTweetCount());
+            assertEquals(2 * perMinute, window.getActiveAuthors().size());
+            assertEquals(Integer.valueOf(2 * perMinute), window.getMentionCounts().get("hot"));
+            assertEquals(2 * perMinute + 1, window.getMentionCounts().size());
+        }
+    }
+
+    private static Tweet tweet(long id, String author, String text, long seconds) {
+        return new Tweet(id, author, text, t0.plusSeconds(seconds));
+    }
+
+}
@@ -0,0 +1,82 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class UsernamePoolTest {
+
+    /*
+     * Testing strategy for UsernamePool
+     *
+     * cover subdomain of these partitions:
+     *   partition on name: new, already pooled
+     *   partition on case: same as pooled, different
+     *   partition on input: whole string, range of a larger text
+     *   partition on threads: 1, > 1
+     */
+
+    @Test(expected = AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers new, pooled; same and different case; whole string and range; 1 thread
+    @Test
+    public void testCanonical() {
+        UsernamePool pool = new UsernamePool();
+        String bert = pool.canonical("Bert");
+
+        assertEquals("bert", bert);
+        assertSame(bert, pool.canonical("BERT"));
+        assertSame(bert, pool.canonical("hi @bErT!", 4, 8));
+        assertEquals(0, pool.id("bert"));
+        assertEquals(1, pool.id("ernie"));
+        assertEquals(1, pool.indexOf("Ernie"));
+        assertEquals(-1, pool.indexOf("elmo"));
+        assertEquals(2, pool.size());
+        assertSame(bert, pool.name(0));
+    }
+
+    // covers > 1 thread: every thread gets the same instance and id for each name
+    @Test
+    public void testConcurrent() throws Exception {
+        UsernamePool pool = new UsernamePool();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        List<Future<String[]>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final boolean upper = t % 2 == 0;
+            results.add(threads.submit(() -> {
+                String[] names = new String[5000];
+                for (int i = 0; i < names.length; i++) {
+                    String name = "user" + i;
+                    names[i] = pool.canonical(upper ? name.toUpperCase() : name);
+                }
+                return names;
+            }));
+        }
+        String[] first = results.get(0).get();
+        for (Future<String[]> result : results) {
+            String[] names = result.get();
+            for (int i = 0; i < names.length; i++) {
+                assertSame(first[i], names[i]);
+            }
+        }
+        threads.shutdown();
+
+        assertEquals(5000, pool.size());
+        for (int i = 0; i < first.length; i++) {
+            assertSame(first[i], pool.name(pool.indexOf(first[i])));
+        }
+    }
+
+}